@@ -0,0 +1,33 @@
+package ru.practicum.shareit.batch.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.batch.dto.BatchRequestDto;
+import ru.practicum.shareit.batch.dto.BatchResponseDto;
+
+import javax.validation.Valid;
+
+@Slf4j
+@RestController
+@RequestMapping("/batch")
+@RequiredArgsConstructor
+public class BatchController {
+    private final BatchDispatcher batchDispatcher;
+    @Value("${shareit.batch.max-concurrency:10}")
+    private int maxConcurrency;
+
+    @PostMapping
+    public Mono<ResponseEntity<Object>> batch(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                              @Valid @RequestBody BatchRequestDto batchRequestDto) {
+        log.info("Send batch of {} requests", batchRequestDto.getRequests().size());
+        return Flux.fromIterable(batchRequestDto.getRequests())
+                .flatMapSequential(it -> batchDispatcher.dispatch(userId, it), maxConcurrency)
+                .collectList()
+                .map(responses -> ResponseEntity.<Object>ok(new BatchResponseDto(responses)));
+    }
+}
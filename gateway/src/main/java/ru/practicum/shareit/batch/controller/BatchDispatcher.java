@@ -0,0 +1,141 @@
+package ru.practicum.shareit.batch.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import io.netty.channel.ConnectTimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import ru.practicum.shareit.batch.dto.SubRequestDto;
+import ru.practicum.shareit.batch.dto.SubResponseDto;
+import ru.practicum.shareit.booking.controller.BookingClient;
+import ru.practicum.shareit.exception.ErrorResponse;
+import ru.practicum.shareit.item.controller.ItemClient;
+import ru.practicum.shareit.request.controller.ItemRequestClient;
+import ru.practicum.shareit.user.controller.UserClient;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Выполняет подзапрос пакета через тот же клиент, что и одиночный запрос шлюза, поэтому
+ * подзапросы идут через общий пул соединений и кеш ответов. Поддерживаются только чтения
+ * одного ресурса: GET /items/{id}, /bookings/{id}, /requests/{id} и /users/{id}.
+ */
+@Slf4j
+@Component
+public class BatchDispatcher {
+    private static final Pattern RESOURCE_PATH = Pattern.compile("^/(items|bookings|requests|users)/(\\d{1,18})$");
+    private final Map<String, BiFunction<Long, Long, Mono<ResponseEntity<Object>>>> routes;
+    private final JsonFactory jsonFactory;
+
+    @Autowired
+    public BatchDispatcher(ItemClient itemClient, BookingClient bookingClient,
+                           ItemRequestClient itemRequestClient, UserClient userClient,
+                           ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.routes = Map.of(
+                "items", itemClient::getItemById,
+                "bookings", (userId, id) -> bookingClient.findBookingById(userId, id, null),
+                "requests", itemRequestClient::getRequestById,
+                "users", (userId, id) -> userClient.findById(id)
+        );
+    }
+
+    /**
+     * Ошибка подзапроса возвращается в его ответе и не прерывает остальные подзапросы пакета.
+     * Сбой обращения к серверу отдаётся как 504 при таймауте и как 502 в остальных случаях.
+     */
+    public Mono<SubResponseDto> dispatch(Long userId, SubRequestDto request) {
+        final String path = request.getPath();
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return Mono.just(error(path, HttpStatus.METHOD_NOT_ALLOWED,
+                    String.format("Метод %s не поддерживается в пакете", request.getMethod())));
+        }
+        final Matcher matcher = RESOURCE_PATH.matcher(path);
+        if (!matcher.matches()) {
+            return Mono.just(error(path, HttpStatus.NOT_FOUND, String.format("Путь %s не поддерживается в пакете", path)));
+        }
+        final long id = Long.parseLong(matcher.group(2));
+        return routes.get(matcher.group(1)).apply(userId, id)
+                // Блокирующий транспорт выполняет запрос в подписавшемся потоке: без переноса
+                // на отдельный поток подзапросы шли бы последовательно.
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(response -> new SubResponseDto(path, response.getStatusCodeValue(), toBody(response)))
+                .onErrorResume(e -> {
+                    log.error(e.getMessage(), e);
+                    return Mono.just(error(path, isTimeout(e) ? HttpStatus.GATEWAY_TIMEOUT : HttpStatus.BAD_GATEWAY,
+                            e.getMessage()));
+                });
+    }
+
+    /**
+     * Транспорт завершается ошибкой только при сбое обращения к серверу. Таймаут ищется по цепочке
+     * причин: RestTemplate оборачивает его в ResourceAccessException, WebClient - в WebClientRequestException.
+     * Таймауты Apache HttpClient (соединение, чтение, ожидание соединения из пула) наследуют
+     * InterruptedIOException, таймауты Reactor Netty - TimeoutException.
+     */
+    private static boolean isTimeout(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InterruptedIOException ||
+                    cause instanceof TimeoutException ||
+                    cause instanceof io.netty.handler.timeout.TimeoutException ||
+                    cause instanceof ConnectTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Тело, которое является корректным JSON, встраивается как есть; остальное - строкой.
+     * Content-Type сервера для этого недостаточен: текстовые ошибки он тоже отдаёт как application/json.
+     */
+    private Object toBody(ResponseEntity<Object> response) {
+        final Object body = response.getBody();
+        if (!(body instanceof byte[])) {
+            return body;
+        }
+        final byte[] bytes = (byte[]) body;
+        if (bytes.length == 0) {
+            return null;
+        }
+        final String text = new String(bytes, StandardCharsets.UTF_8);
+        final MediaType contentType = response.getHeaders().getContentType();
+        final boolean json = contentType != null && MediaType.APPLICATION_JSON.isCompatibleWith(contentType);
+        return json && isWellFormedJson(bytes) ? new RawValue(text) : text;
+    }
+
+    /**
+     * Проверка потоковым парсером: токены читаются, но объекты не создаются.
+     */
+    private boolean isWellFormedJson(byte[] bytes) {
+        try (JsonParser parser = jsonFactory.createParser(bytes)) {
+            if (parser.nextToken() == null) {
+                return false;
+            }
+            parser.skipChildren();
+            return parser.nextToken() == null;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static SubResponseDto error(String path, HttpStatus status, String message) {
+        return new SubResponseDto(path, status.value(), new ErrorResponse(message, status.value()));
+    }
+}
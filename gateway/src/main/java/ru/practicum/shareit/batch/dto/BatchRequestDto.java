@@ -0,0 +1,19 @@
+package ru.practicum.shareit.batch.dto;
+
+import lombok.*;
+import java.util.List;
+import javax.validation.Valid;
+import javax.validation.constraints.*;
+
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class BatchRequestDto {
+    public static final int MAX_REQUESTS = 50;
+
+    @NotEmpty
+    @Size(max = MAX_REQUESTS)
+    private List<@Valid SubRequestDto> requests;
+}
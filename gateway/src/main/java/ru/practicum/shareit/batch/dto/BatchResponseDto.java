@@ -0,0 +1,14 @@
+package ru.practicum.shareit.batch.dto;
+
+import lombok.*;
+import java.util.List;
+
+/**
+ * Ответы на подзапросы в том же порядке, в котором они пришли в пакете.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class BatchResponseDto {
+    private final List<SubResponseDto> responses;
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.batch.dto;
+
+import lombok.*;
+import javax.validation.constraints.*;
+
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class SubRequestDto {
+    private String method = "GET";
+    @NotBlank
+    private String path;
+}
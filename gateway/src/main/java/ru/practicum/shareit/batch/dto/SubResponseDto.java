@@ -0,0 +1,15 @@
+package ru.practicum.shareit.batch.dto;
+
+import lombok.*;
+
+/**
+ * Ответ на один подзапрос пакета. Тело JSON-ответа сервера встраивается как есть, без разбора.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class SubResponseDto {
+    private final String path;
+    private final int status;
+    private final Object body;
+}
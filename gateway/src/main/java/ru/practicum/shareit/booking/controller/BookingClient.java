@@ -1,5 +1,6 @@
 package ru.practicum.shareit.booking.controller;
 
+import java.util.HashMap;
 import java.util.Map;
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Value;
@@ -7,59 +8,62 @@ import org.springframework.beans.factory.annotation.Autowired;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.GatewayTransportFactory;
+import ru.practicum.shareit.client.ResponseCache;
 import org.springframework.http.ResponseEntity;
-import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.web.util.DefaultUriBuilderFactory;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import reactor.core.publisher.Mono;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit.server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public BookingClient(@Value("${shareit.server.url}") String serverUrl, GatewayTransportFactory transportFactory,
+                         ResponseCache responseCache) {
+        super(transportFactory.create(serverUrl + API_PREFIX), responseCache.region(API_PREFIX));
     }
 
-    public ResponseEntity<Object> findBookingById(Long userId, Long id) {
-        return get("/" + id, userId);
+    public Mono<ResponseEntity<Object>> findBookingById(Long userId, Long id, String ifNoneMatch) {
+        return conditionalGet("/" + id, userId, ifNoneMatch);
     }
 
-    public ResponseEntity<Object> findAllByBookerId(Long userId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state,
-                "from", from,
-                "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+    public Mono<ResponseEntity<Object>> findAllByBookerId(Long userId, BookingState state, Integer from, Integer size, String after) {
+        return get("?state={state}&from={from}&size={size}" + afterParameter(after), userId,
+                listParameters(state, from, size, after));
     }
 
-    public ResponseEntity<Object> findAllByItemOwnerId(Long userId, BookingState state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state,
-                "from", from,
-                "size", size
-        );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+    public Mono<ResponseEntity<Object>> findAllByItemOwnerId(Long userId, BookingState state, Integer from, Integer size, String after) {
+        return get("/owner?state={state}&from={from}&size={size}" + afterParameter(after), userId,
+                listParameters(state, from, size, after));
     }
 
-    public ResponseEntity<Object> createBooking(BookingDto dto, Long userId) {
+    public Mono<ResponseEntity<Object>> createBooking(BookingDto dto, Long userId) {
         return post("", userId, dto);
     }
 
-    public ResponseEntity<Object> updateBooking(Long userId, Long id, Boolean approved) {
+    public Mono<ResponseEntity<Object>> updateBooking(Long userId, Long id, Boolean approved) {
         Map<String, Object> parameters = Map.of(
                 "approved", approved
         );
         return patch("/" + id + "?approved={approved}", userId, parameters, null);
     }
 
-    public ResponseEntity<Object> deleteBookingById(Long userId, Long id) {
+    public Mono<ResponseEntity<Object>> deleteBookingById(Long userId, Long id) {
         return delete("/" + id, userId);
     }
-}
\ No newline at end of file
+
+    private static String afterParameter(String after) {
+        return after == null ? "" : "&after={after}";
+    }
+
+    private static Map<String, Object> listParameters(BookingState state, Integer from, Integer size, String after) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("state", state);
+        parameters.put("from", from);
+        parameters.put("size", size);
+        if (after != null) {
+            parameters.put("after", after);
+        }
+        return parameters;
+    }
+}
@@ -3,9 +3,11 @@ package ru.practicum.shareit.booking.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 
@@ -22,49 +24,52 @@ public class BookingController {
 	private final BookingClient bookingClient;
 
 	@GetMapping("/{id}")
-	public ResponseEntity<Object> findBookingById(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long id) {
+	public Mono<ResponseEntity<Object>> findBookingById(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long id,
+														@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 		log.info("Send get request /bookings/{}", id);
-		return bookingClient.findBookingById(userId, id);
+		return bookingClient.findBookingById(userId, id, ifNoneMatch);
 	}
 
 	@GetMapping
-	public ResponseEntity<Object> findAllByBookerId(@RequestHeader("X-Sharer-User-Id") Long userId,
-													@RequestParam(name = "state", defaultValue = "ALL") String state,
-													@RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-													@RequestParam(defaultValue = "10") @Positive Integer size) {
-		log.info("Send get request /bookings?state={}&from={}&size={}", state, from, size);
+	public Mono<ResponseEntity<Object>> findAllByBookerId(@RequestHeader("X-Sharer-User-Id") Long userId,
+													      @RequestParam(name = "state", defaultValue = "ALL") String state,
+													      @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+													      @RequestParam(defaultValue = "10") @Positive Integer size,
+													      @RequestParam(required = false) String after) {
+		log.info("Send get request /bookings?state={}&from={}&size={}&after={}", state, from, size, after);
 		final BookingState bookingState = BookingState.from(state)
 				.orElseThrow(() -> new IllegalArgumentException("Unknown state: " + state));
-		return bookingClient.findAllByBookerId(userId, bookingState, from, size);
+		return bookingClient.findAllByBookerId(userId, bookingState, from, size, after);
 	}
 
 	@GetMapping("/owner")
-	public ResponseEntity<Object> findAllByItemOwnerId(@RequestHeader("X-Sharer-User-Id") Long userId,
-													   @RequestParam(name = "state", defaultValue = "ALL") String state,
-													   @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-													   @RequestParam(defaultValue = "10") @Positive Integer size) {
-		log.info("Send get request /bookings/owner?state={}&from={}&size={}", state, from, size);
+	public Mono<ResponseEntity<Object>> findAllByItemOwnerId(@RequestHeader("X-Sharer-User-Id") Long userId,
+													         @RequestParam(name = "state", defaultValue = "ALL") String state,
+													         @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+													         @RequestParam(defaultValue = "10") @Positive Integer size,
+													         @RequestParam(required = false) String after) {
+		log.info("Send get request /bookings/owner?state={}&from={}&size={}&after={}", state, from, size, after);
 		final BookingState bookingState = BookingState.from(state)
 				.orElseThrow(() -> new IllegalArgumentException("Unknown state: " + state));
-		return bookingClient.findAllByItemOwnerId(userId, bookingState, from, size);
+		return bookingClient.findAllByItemOwnerId(userId, bookingState, from, size, after);
 	}
 
 	@PostMapping
-	public ResponseEntity<Object> createBooking(@Valid @RequestBody BookingDto bookingDto,
-									   @RequestHeader("X-Sharer-User-Id") Long userId) {
+	public Mono<ResponseEntity<Object>> createBooking(@Valid @RequestBody BookingDto bookingDto,
+									         @RequestHeader("X-Sharer-User-Id") Long userId) {
 		log.info("Send post request /bookings");
 		return bookingClient.createBooking(bookingDto, userId);
 	}
 
 	@PatchMapping("/{id}")
-	public ResponseEntity<Object> updateBooking(@RequestHeader("X-Sharer-User-Id") Long userId,
-										 @PathVariable Long id, @RequestParam(name = "approved") Boolean approved) {
+	public Mono<ResponseEntity<Object>> updateBooking(@RequestHeader("X-Sharer-User-Id") Long userId,
+										       @PathVariable Long id, @RequestParam(name = "approved") Boolean approved) {
 		log.info("Send patch request /bookings/{}?approved={}", id, approved);
 		return bookingClient.updateBooking(userId, id, approved);
 	}
 
 	@DeleteMapping("/{id}")
-	public ResponseEntity<Object> deleteBookingById(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long id) {
+	public Mono<ResponseEntity<Object>> deleteBookingById(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long id) {
 		log.info("Send delete request /bookings/{}", id);
 		return bookingClient.deleteBookingById(userId, id);
 	}
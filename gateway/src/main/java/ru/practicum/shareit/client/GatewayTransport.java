@@ -0,0 +1,30 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Отправка запроса на shareit-server относительно базового адреса клиента.
+ * Ответ сервера с любым статусом возвращается как ResponseEntity с заголовками сервера и телом byte[]
+ * без разбора JSON.
+ * Ошибкой Mono завершается только сбой соединения.
+ */
+public interface GatewayTransport {
+
+    /**
+     * Выполнить запрос.
+     * @param method HTTP-метод.
+     * @param path путь-шаблон относительно базового адреса.
+     * @param headers заголовки запроса.
+     * @param parameters значения переменных шаблона.
+     * @param body тело запроса.
+     * @return Mono<ResponseEntity<Object>>.
+     */
+    Mono<ResponseEntity<Object>> exchange(HttpMethod method, String path, HttpHeaders headers,
+                                          @Nullable Map<String, Object> parameters, @Nullable Object body);
+}
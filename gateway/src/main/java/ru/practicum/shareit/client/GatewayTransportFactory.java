@@ -0,0 +1,15 @@
+package ru.practicum.shareit.client;
+
+/**
+ * Создаёт транспорт для клиента с заданным базовым адресом. Реализация выбирается
+ * свойством shareit.gateway.transport: blocking (по умолчанию) или reactive.
+ */
+public interface GatewayTransportFactory {
+
+    /**
+     * Транспорт для клиента.
+     * @param baseUrl адрес сервера с префиксом API клиента.
+     * @return GatewayTransport.
+     */
+    GatewayTransport create(String baseUrl);
+}
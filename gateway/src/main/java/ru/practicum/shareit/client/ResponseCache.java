@@ -0,0 +1,167 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Кеш ответов сервера на идемпотентные GET-запросы шлюза.
+ * Ключ - пространство клиента (/items, /requests), путь с параметрами и X-Sharer-User-Id:
+ * ответы владельцу вещи и остальным пользователям различаются. В течение ttl ответ отдаётся
+ * без обращения к серверу, после - запрашивается заново, а если сервер вернул ETag,
+ * перепроверяется запросом с If-None-Match, и ответ 304 продлевает запись ещё на ttl.
+ * Записи вытесняются по размеру и через max-age.
+ * <p>
+ * Успешный POST/PATCH/DELETE через шлюз сбрасывает в своём пространстве записи того же ресурса
+ * и все выборки (поиск), а также целиком пространства, объявившие зависимость от него.
+ */
+@Component
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+public class ResponseCache {
+    private final ResponseCacheProperties properties;
+    private final Cache<Key, Entry> cache;
+    private final Map<String, Set<String>> dependents = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public ResponseCache(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getMaxAge())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway.responses");
+    }
+
+    /**
+     * Пространство кеша клиента. Записи в пространства dependsOn сбрасывают его целиком:
+     * например, новое бронирование меняет lastBooking/nextBooking в ответе на GET /items/{id}.
+     */
+    public Region region(String name, String... dependsOn) {
+        for (String other : dependsOn) {
+            dependents.computeIfAbsent(other, it -> ConcurrentHashMap.newKeySet()).add(name);
+        }
+        return new Region(name);
+    }
+
+    @RequiredArgsConstructor
+    public class Region {
+        private final String name;
+
+        /**
+         * Возвращает ответ из кеша или загружает его через loader, передавая ему заголовки
+         * условного запроса. Кешируются только ответы 200.
+         */
+        public Mono<ResponseEntity<Object>> get(String path, @Nullable Long userId, @Nullable Map<String, Object> parameters,
+                                               Function<HttpHeaders, Mono<ResponseEntity<Object>>> loader) {
+            if (!properties.isEnabled()) {
+                return loader.apply(HttpHeaders.EMPTY);
+            }
+            final Key key = new Key(name, path, parameters == null ? Map.of() : parameters, userId);
+            final Entry cached = cache.getIfPresent(key);
+            if (cached != null && cached.isFresh(properties.getTtl().toNanos())) {
+                return Mono.just(cached.getResponse());
+            }
+            final HttpHeaders conditional = new HttpHeaders();
+            if (cached != null && cached.getETag() != null) {
+                conditional.setIfNoneMatch(cached.getETag());
+            }
+            return Mono.defer(() -> {
+                final long loadGeneration = generation.get();
+                return loader.apply(conditional)
+                        .map(response -> store(key, cached, response, loadGeneration));
+            });
+        }
+
+        /**
+         * Сбрасывает записи, которые могли устареть после изменения ресурса по пути path.
+         */
+        public void evict(String path) {
+            generation.incrementAndGet();
+            final String resource = resourceOf(path);
+            final Set<String> dependentRegions = dependents.getOrDefault(name, Set.of());
+            cache.asMap().keySet().removeIf(key -> dependentRegions.contains(key.getRegion()) ||
+                    key.getRegion().equals(name) && (key.getResource().equals(resource) || !isIdentifier(key.getResource())));
+        }
+    }
+
+    private ResponseEntity<Object> store(Key key, @Nullable Entry cached, ResponseEntity<Object> response, long loadGeneration) {
+        if (cached != null && response.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+            putIfNotEvicted(key, new Entry(cached.getResponse(), cached.getETag(), System.nanoTime()), loadGeneration);
+            return cached.getResponse();
+        }
+        if (response.getStatusCode() == HttpStatus.OK) {
+            putIfNotEvicted(key, new Entry(response, response.getHeaders().getETag(), System.nanoTime()), loadGeneration);
+        } else {
+            cache.invalidate(key);
+        }
+        return response;
+    }
+
+    /**
+     * Ответ, загруженный до сброса кеша записью, мог её не увидеть и в кеш не попадает.
+     */
+    private void putIfNotEvicted(Key key, Entry entry, long loadGeneration) {
+        if (generation.get() == loadGeneration) {
+            cache.put(key, entry);
+        }
+    }
+
+    private static String resourceOf(String path) {
+        final String relative = path.startsWith("/") ? path.substring(1) : path;
+        int end = relative.length();
+        for (int i = 0; i < relative.length(); i++) {
+            if (relative.charAt(i) == '/' || relative.charAt(i) == '?') {
+                end = i;
+                break;
+            }
+        }
+        return relative.substring(0, end);
+    }
+
+    private static boolean isIdentifier(String resource) {
+        return !resource.isEmpty() && resource.chars().allMatch(Character::isDigit);
+    }
+
+    @Value
+    private static class Key {
+        String region;
+        String path;
+        Map<String, Object> parameters;
+        Long userId;
+
+        String getResource() {
+            return resourceOf(path);
+        }
+    }
+
+    @Value
+    private static class Entry {
+        ResponseEntity<Object> response;
+        @Nullable
+        String eTag;
+        long storedAt;
+
+        boolean isFresh(long ttlNanos) {
+            return System.nanoTime() - storedAt < ttlNanos;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки кеша ответов шлюза: ttl - время, в течение которого ответ отдаётся без обращения
+ * к серверу, max-age - сколько ответ с ETag хранится для перепроверки через If-None-Match.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.cache")
+public class ResponseCacheProperties {
+    private boolean enabled = true;
+    private long maxSize = 10_000;
+    private Duration ttl = Duration.ofSeconds(10);
+    private Duration maxAge = Duration.ofMinutes(5);
+}
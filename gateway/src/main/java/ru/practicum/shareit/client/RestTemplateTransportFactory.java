@@ -0,0 +1,53 @@
+package ru.practicum.shareit.client;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Блокирующий транспорт: RestTemplate на общем пуле соединений, запрос выполняется
+ * в потоке, подписавшемся на Mono (потоке сервлета). Тело ответа читается как byte[].
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.gateway.transport", havingValue = "blocking", matchIfMissing = true)
+public class RestTemplateTransportFactory implements GatewayTransportFactory {
+    private final RestTemplateBuilder builder;
+    private final ClientHttpRequestFactory requestFactory;
+
+    @Override
+    public GatewayTransport create(String baseUrl) {
+        final RestTemplate rest = builder
+                .uriTemplateHandler(new DefaultUriBuilderFactory(baseUrl))
+                .requestFactory(() -> requestFactory)
+                .build();
+        return (method, path, headers, parameters, body) ->
+                Mono.fromCallable(() -> exchange(rest, method, path, headers, parameters, body));
+    }
+
+    private static ResponseEntity<Object> exchange(RestTemplate rest, HttpMethod method, String path, HttpHeaders headers,
+                                                   @Nullable Map<String, Object> parameters, @Nullable Object body) {
+        final HttpEntity<Object> requestEntity = new HttpEntity<>(body, headers);
+        try {
+            final ResponseEntity<byte[]> response = parameters != null ?
+                    rest.exchange(path, method, requestEntity, byte[].class, parameters) :
+                    rest.exchange(path, method, requestEntity, byte[].class);
+            return new ResponseEntity<>(response.getBody(), response.getHeaders(), response.getStatusCode());
+        } catch (HttpStatusCodeException e) {
+            return new ResponseEntity<>(e.getResponseBodyAsByteArray(), e.getResponseHeaders(), e.getStatusCode());
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package ru.practicum.shareit.client;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.Collections;
+
+/**
+ * Неблокирующий транспорт: WebClient на Reactor Netty. Поток сервлета освобождается на время
+ * запроса к серверу, а число одновременных запросов ограничено пулом соединений и очередью
+ * ожидания соединения (pendingAcquireMaxCount), при переполнении которой запрос отклоняется.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.gateway.transport", havingValue = "reactive")
+@EnableConfigurationProperties(HttpClientProperties.class)
+public class WebClientTransportFactory implements GatewayTransportFactory, DisposableBean {
+    private static final String POOL_NAME = "shareit-server";
+    private final WebClient.Builder builder;
+    private final ConnectionProvider connectionProvider;
+
+    @Autowired
+    public WebClientTransportFactory(WebClient.Builder builder, HttpClientProperties properties) {
+        this.connectionProvider = ConnectionProvider.builder(POOL_NAME)
+                .maxConnections(properties.getMaxTotal())
+                .pendingAcquireMaxCount(properties.getMaxPendingRequests())
+                .pendingAcquireTimeout(properties.getConnectionRequestTimeout())
+                .maxIdleTime(properties.getIdleTimeout())
+                .maxLifeTime(properties.getKeepAlive())
+                .evictInBackground(properties.getIdleTimeout())
+                .metrics(true)
+                .build();
+        final HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getReadTimeout());
+        this.builder = builder.clone()
+                .clientConnector(new ReactorClientHttpConnector(httpClient));
+    }
+
+    @Override
+    public GatewayTransport create(String baseUrl) {
+        final WebClient webClient = builder.clone()
+                .baseUrl(baseUrl)
+                .build();
+        return (method, path, headers, parameters, body) -> {
+            final WebClient.RequestBodySpec request = webClient.method(method)
+                    .uri(path, parameters == null ? Collections.emptyMap() : parameters)
+                    .headers(it -> it.addAll(headers));
+            return (body == null ? request : request.bodyValue(body))
+                    .exchangeToMono(WebClientTransportFactory::toEntity);
+        };
+    }
+
+    @Override
+    public void destroy() {
+        connectionProvider.dispose();
+    }
+
+    private static Mono<ResponseEntity<Object>> toEntity(ClientResponse response) {
+        return response.toEntity(byte[].class)
+                .map(it -> new ResponseEntity<Object>(it.getBody(), it.getHeaders(), it.getStatusCode()));
+    }
+}
@@ -7,53 +7,51 @@ import org.springframework.beans.factory.annotation.Autowired;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.GatewayTransportFactory;
+import ru.practicum.shareit.client.ResponseCache;
 import org.springframework.http.ResponseEntity;
-import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.web.util.DefaultUriBuilderFactory;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import reactor.core.publisher.Mono;
 
 @Service
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit.server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public ItemClient(@Value("${shareit.server.url}") String serverUrl, GatewayTransportFactory transportFactory,
+                      ResponseCache responseCache) {
+        super(transportFactory.create(serverUrl + API_PREFIX), responseCache.region(API_PREFIX, "/bookings", "/users"));
     }
 
-    public ResponseEntity<Object> getItemById(Long userId, Long id) {
-        return get("/" + id, userId);
+    public Mono<ResponseEntity<Object>> getItemById(Long userId, Long id) {
+        return cachedGet("/" + id, userId, null);
     }
 
-    public ResponseEntity<Object> searchItems(Long userId, String text) {
+    public Mono<ResponseEntity<Object>> searchItems(Long userId, String text, Integer page, Integer size) {
         Map<String, Object> parameters = Map.of(
-                "text", text
+                "text", text,
+                "page", page,
+                "size", size
         );
-        return get("/search?text={text}", userId, parameters);
+        return cachedGet("/search?text={text}&page={page}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getAllItems(Long userId) {
+    public Mono<ResponseEntity<Object>> getAllItems(Long userId) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> addItem(ItemDto dto, Long userId) {
+    public Mono<ResponseEntity<Object>> addItem(ItemDto dto, Long userId) {
         return post("", userId, dto);
     }
 
-    public ResponseEntity<Object> addComment(CommentDto dto, Long userId, Long id) {
+    public Mono<ResponseEntity<Object>> addComment(CommentDto dto, Long userId, Long id) {
         return post("/" + id + "/comment", userId, dto);
     }
 
-    public ResponseEntity<Object> updateItem(ItemDto dto, Long userId, Long id) {
+    public Mono<ResponseEntity<Object>> updateItem(ItemDto dto, Long userId, Long id) {
         return patch("/" + id, userId, dto);
     }
 
-    public ResponseEntity<Object> deleteItemById(Long userId, Long id) {
+    public Mono<ResponseEntity<Object>> deleteItemById(Long userId, Long id) {
         return delete("/" + id, userId);
     }
 }
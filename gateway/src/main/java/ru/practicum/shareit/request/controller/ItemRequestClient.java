@@ -6,34 +6,37 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.annotation.Autowired;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.GatewayTransportFactory;
+import ru.practicum.shareit.client.ResponseCache;
 import org.springframework.http.ResponseEntity;
-import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.web.util.DefaultUriBuilderFactory;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import reactor.core.publisher.Mono;
 
 @Service
 public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public ItemRequestClient(@Value("${shareit.server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public ItemRequestClient(@Value("${shareit.server.url}") String serverUrl, GatewayTransportFactory transportFactory,
+                             ResponseCache responseCache) {
+        super(transportFactory.create(serverUrl + API_PREFIX), responseCache.region(API_PREFIX, "/items", "/users"));
     }
 
-    public ResponseEntity<Object> getRequestById(Long userId, Long id) {
-        return get("/" + id, userId);
+    public Mono<ResponseEntity<Object>> getRequestById(Long userId, Long id) {
+        return cachedGet("/" + id, userId, null);
     }
 
-    public ResponseEntity<Object> getRequestsMadeByOwner(Long userId) {
+    public Mono<ResponseEntity<Object>> getRequestsMadeByOwner(Long userId) {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getRequestsMadeByOthers(Long userId, Integer from, Integer size) {
+    public Mono<ResponseEntity<Object>> getRequestsMadeByOthers(Long userId, Integer from, Integer size, String after) {
+        if (after != null) {
+            Map<String, Object> parameters = Map.of(
+                    "size", size,
+                    "after", after
+            );
+            return get("/all?size={size}&after={after}", userId, parameters);
+        }
         Map<String, Object> parameters = Map.of(
                 "from", from,
                 "size", size
@@ -41,11 +44,11 @@ public class ItemRequestClient extends BaseClient {
         return get("/all?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> addNewRequest(ItemRequestDto dto, Long userId) {
+    public Mono<ResponseEntity<Object>> addNewRequest(ItemRequestDto dto, Long userId) {
         return post("", userId, dto);
     }
 
-    public ResponseEntity<Object> deleteById(Long userId, Long id) {
+    public Mono<ResponseEntity<Object>> deleteById(Long userId, Long id) {
         return delete("/" + id, userId);
     }
 }
@@ -5,42 +5,38 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.annotation.Autowired;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.GatewayTransportFactory;
+import ru.practicum.shareit.client.ResponseCache;
 import org.springframework.http.ResponseEntity;
-import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.web.util.DefaultUriBuilderFactory;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import reactor.core.publisher.Mono;
 
 @Service
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
     @Autowired
-    public UserClient(@Value("${shareit.server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public UserClient(@Value("${shareit.server.url}") String serverUrl, GatewayTransportFactory transportFactory,
+                      ResponseCache responseCache) {
+        super(transportFactory.create(serverUrl + API_PREFIX), responseCache.region(API_PREFIX));
     }
 
-    public ResponseEntity<Object> findById(Long id) {
+    public Mono<ResponseEntity<Object>> findById(Long id) {
         return get("/" + id);
     }
 
-    public ResponseEntity<Object> findAll() {
+    public Mono<ResponseEntity<Object>> findAll() {
         return get("");
     }
 
-    public ResponseEntity<Object> save(UserDto dto) {
+    public Mono<ResponseEntity<Object>> save(UserDto dto) {
         return post("", dto);
     }
 
-    public ResponseEntity<Object> update(UserDto dto, Long id) {
+    public Mono<ResponseEntity<Object>> update(UserDto dto, Long id) {
         return patch("/" + id, dto);
     }
 
-    public ResponseEntity<Object> deleteById(Long id) {
+    public Mono<ResponseEntity<Object>> deleteById(Long id) {
         return delete("/" + id);
     }
 }
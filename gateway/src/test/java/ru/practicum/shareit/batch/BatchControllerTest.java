@@ -0,0 +1,208 @@
+package ru.practicum.shareit.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.client.ResourceAccessException;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.batch.controller.BatchController;
+import ru.practicum.shareit.batch.controller.BatchDispatcher;
+import ru.practicum.shareit.batch.dto.BatchRequestDto;
+import ru.practicum.shareit.batch.dto.SubRequestDto;
+import ru.practicum.shareit.booking.controller.BookingClient;
+import ru.practicum.shareit.client.ResponseCache;
+import ru.practicum.shareit.client.ResponseCacheProperties;
+import ru.practicum.shareit.client.StubTransport;
+import ru.practicum.shareit.exception.ErrorHandler;
+import ru.practicum.shareit.item.controller.ItemClient;
+import ru.practicum.shareit.request.controller.ItemRequestClient;
+import ru.practicum.shareit.user.controller.UserClient;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class BatchControllerTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private StubTransport transport;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void init() {
+        transport = new StubTransport();
+        final ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setEnabled(false);
+        final ResponseCache cache = new ResponseCache(properties, new SimpleMeterRegistry());
+        final BatchDispatcher dispatcher = new BatchDispatcher(
+                new ItemClient("http://server", transport, cache),
+                new BookingClient("http://server", transport, cache),
+                new ItemRequestClient("http://server", transport, cache),
+                new UserClient("http://server", transport, cache),
+                objectMapper);
+        final BatchController controller = new BatchController(dispatcher);
+        ReflectionTestUtils.setField(controller, "maxConcurrency", 10);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new ErrorHandler())
+                .build();
+    }
+
+    @Test
+    void batchOfMaxRequestsIsAccepted() throws Exception {
+        final List<SubRequestDto> requests = IntStream.rangeClosed(1, BatchRequestDto.MAX_REQUESTS)
+                .mapToObj(id -> {
+                    transport.respond("/" + id, HttpStatus.OK, null, "{\"id\":" + id + "}");
+                    return new SubRequestDto("GET", "/users/" + id);
+                })
+                .collect(Collectors.toList());
+
+        final MvcResult result = mockMvc.perform(batch(requests))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.responses.length()").value(BatchRequestDto.MAX_REQUESTS));
+    }
+
+    @Test
+    void batchOverMaxRequestsIsRejected() throws Exception {
+        final List<SubRequestDto> requests = IntStream.rangeClosed(1, BatchRequestDto.MAX_REQUESTS + 1)
+                .mapToObj(id -> new SubRequestDto("GET", "/users/" + id))
+                .collect(Collectors.toList());
+
+        mockMvc.perform(batch(requests))
+                .andExpect(status().isBadRequest());
+
+        assertThat(transport.requests()).isEmpty();
+    }
+
+    @Test
+    void emptyBatchIsRejected() throws Exception {
+        mockMvc.perform(batch(List.of()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void unsupportedMethodsAndPathsAreRejectedPerRequest() throws Exception {
+        transport.respond("/1", HttpStatus.OK, null, "{\"id\":1}");
+
+        perform(List.of(
+                new SubRequestDto("POST", "/items/1"),
+                new SubRequestDto("DELETE", "/users/1"),
+                new SubRequestDto("GET", "/items"),
+                new SubRequestDto("GET", "/items/1/comment"),
+                new SubRequestDto("GET", "/comments/1"),
+                new SubRequestDto("GET", "/items/1")))
+                .andExpect(jsonPath("$.responses[0].status").value(405))
+                .andExpect(jsonPath("$.responses[1].status").value(405))
+                .andExpect(jsonPath("$.responses[2].status").value(404))
+                .andExpect(jsonPath("$.responses[3].status").value(404))
+                .andExpect(jsonPath("$.responses[4].status").value(404))
+                .andExpect(jsonPath("$.responses[5].status").value(200))
+                .andExpect(jsonPath("$.responses[5].body.id").value(1));
+
+        assertThat(transport.requests()).hasSize(1);
+    }
+
+    /**
+     * Все подзапросы должны начаться до того, как завершится первый, а первый завершается последним:
+     * ответы всё равно идут в порядке пакета.
+     */
+    @Test
+    void concurrentRequestsKeepBatchOrder() throws Exception {
+        final int count = 3;
+        final CountDownLatch started = new CountDownLatch(count);
+        for (int id = 1; id <= count; id++) {
+            final long delay = id == 1 ? 200 : 0;
+            final String json = "{\"id\":" + id + "}";
+            transport.respond("/" + id, Mono.fromCallable(() -> {
+                started.countDown();
+                assertTrue(started.await(5, TimeUnit.SECONDS));
+                Thread.sleep(delay);
+                return ok(json);
+            }));
+        }
+
+        perform(List.of(
+                new SubRequestDto("GET", "/items/1"),
+                new SubRequestDto("GET", "/bookings/2"),
+                new SubRequestDto("GET", "/users/3")))
+                .andExpect(jsonPath("$.responses[0].path").value("/items/1"))
+                .andExpect(jsonPath("$.responses[0].body.id").value(1))
+                .andExpect(jsonPath("$.responses[1].path").value("/bookings/2"))
+                .andExpect(jsonPath("$.responses[1].body.id").value(2))
+                .andExpect(jsonPath("$.responses[2].path").value("/users/3"))
+                .andExpect(jsonPath("$.responses[2].body.id").value(3));
+    }
+
+    @Test
+    void failedRequestDoesNotFailOthers() throws Exception {
+        transport.respond("/1", HttpStatus.OK, null, "{\"id\":1}");
+        transport.respond("/2", Mono.error(new ResourceAccessException("Read timed out", new SocketTimeoutException("Read timed out"))));
+        transport.respond("/3", Mono.error(ReadTimeoutException.INSTANCE));
+        transport.respond("/4", Mono.error(new ResourceAccessException("Connection refused", new ConnectException("Connection refused"))));
+        transport.respond("/5", HttpStatus.NOT_FOUND, null, "{\"error\":\"Вещь с id=5 не найдена!\"}");
+
+        perform(List.of(
+                new SubRequestDto("GET", "/items/1"),
+                new SubRequestDto("GET", "/items/2"),
+                new SubRequestDto("GET", "/items/3"),
+                new SubRequestDto("GET", "/items/4"),
+                new SubRequestDto("GET", "/items/5")))
+                .andExpect(jsonPath("$.responses[0].status").value(200))
+                .andExpect(jsonPath("$.responses[0].body.id").value(1))
+                .andExpect(jsonPath("$.responses[1].status").value(504))
+                .andExpect(jsonPath("$.responses[1].body.statusCode").value(504))
+                .andExpect(jsonPath("$.responses[2].status").value(504))
+                .andExpect(jsonPath("$.responses[3].status").value(502))
+                .andExpect(jsonPath("$.responses[3].body.statusCode").value(502))
+                .andExpect(jsonPath("$.responses[4].status").value(404))
+                .andExpect(jsonPath("$.responses[4].body.error").value("Вещь с id=5 не найдена!"));
+    }
+
+    private ResultActions perform(List<SubRequestDto> requests) throws Exception {
+        final MvcResult result = mockMvc.perform(batch(requests))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+    }
+
+    private RequestBuilder batch(List<SubRequestDto> requests) throws Exception {
+        return post("/batch")
+                .header("X-Sharer-User-Id", 1)
+                .contentType(MediaType.APPLICATION_JSON)
+                .characterEncoding(StandardCharsets.UTF_8)
+                .content(objectMapper.writeValueAsString(new BatchRequestDto(requests)));
+    }
+
+    private static ResponseEntity<Object> ok(String json) {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new ResponseEntity<>(json.getBytes(StandardCharsets.UTF_8), headers, HttpStatus.OK);
+    }
+}
@@ -0,0 +1,137 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.practicum.shareit.booking.controller.BookingClient;
+import ru.practicum.shareit.booking.controller.BookingController;
+import ru.practicum.shareit.item.controller.ItemClient;
+import ru.practicum.shareit.item.controller.ItemController;
+import ru.practicum.shareit.request.controller.ItemRequestClient;
+import ru.practicum.shareit.request.controller.ItemRequestController;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Условные GET /items/{id}, /bookings/{id} и /requests/{id} через шлюз: ETag сервера доходит
+ * до клиента, а If-None-Match клиента даёт 304.
+ */
+class ConditionalGetTest {
+    private static final String ITEM = "{\"id\":1,\"name\":\"Saw\"}";
+    private StubTransport transport;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void init() {
+        transport = new StubTransport();
+        final ResponseCache cache = new ResponseCache(new ResponseCacheProperties(), new SimpleMeterRegistry());
+        mockMvc = MockMvcBuilders.standaloneSetup(
+                new ItemController(new ItemClient("http://server", transport, cache)),
+                new BookingController(new BookingClient("http://server", transport, cache)),
+                new ItemRequestController(new ItemRequestClient("http://server", transport, cache))
+        ).build();
+    }
+
+    @Test
+    void itemByIdPassesETagThrough() throws Exception {
+        transport.respond("/1", HttpStatus.OK, "\"item-1-0-0\"", ITEM);
+
+        mockMvc.perform(dispatch(get("/items/1").header("X-Sharer-User-Id", 1)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"item-1-0-0\""))
+                .andExpect(content().json(ITEM));
+    }
+
+    @Test
+    void itemByIdNotModifiedFromCache() throws Exception {
+        transport.respond("/1", HttpStatus.OK, "\"item-1-0-0\"", ITEM);
+        mockMvc.perform(dispatch(get("/items/1").header("X-Sharer-User-Id", 1)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(dispatch(get("/items/1")
+                        .header("X-Sharer-User-Id", 1)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"item-0-0-0\", W/\"item-1-0-0\"")))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"item-1-0-0\""))
+                .andExpect(content().string(""));
+
+        assertThat(transport.requests()).hasSize(1);
+    }
+
+    @Test
+    void itemByIdWithOutdatedETagReturnsBody() throws Exception {
+        transport.respond("/1", HttpStatus.OK, "\"item-1-1-0\"", ITEM);
+
+        mockMvc.perform(dispatch(get("/items/1")
+                        .header("X-Sharer-User-Id", 1)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"item-1-0-0\"")))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"item-1-1-0\""))
+                .andExpect(content().json(ITEM));
+    }
+
+    /**
+     * Серверу уходит только условие кеша: на If-None-Match клиента без записи в кеше сервер
+     * ответил бы 304, и кешировать было бы нечего.
+     */
+    @Test
+    void requestByIdNotModifiedWithoutCachedEntry() throws Exception {
+        transport.respond("/1", HttpStatus.OK, "\"request-1-0-0-0-0-0\"", "{\"id\":1}");
+
+        mockMvc.perform(dispatch(get("/requests/1")
+                        .header("X-Sharer-User-Id", 1)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"request-1-0-0-0-0-0\"")))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"request-1-0-0-0-0-0\""));
+
+        assertThat(transport.requests()).hasSize(1);
+        assertThat(transport.requests().get(0).getHeaders().getIfNoneMatch()).isEmpty();
+    }
+
+    @Test
+    void bookingByIdForwardsIfNoneMatch() throws Exception {
+        transport.respond("/1", HttpStatus.NOT_MODIFIED, "\"booking-1-0-0\"", null);
+
+        mockMvc.perform(dispatch(get("/bookings/1")
+                        .header("X-Sharer-User-Id", 1)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"booking-1-0-0\"")))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"booking-1-0-0\""));
+
+        final StubTransport.Request sent = transport.requests().get(0);
+        assertThat(sent.getPath()).isEqualTo("/1");
+        assertThat(sent.getHeaders().getIfNoneMatch()).containsExactly("\"booking-1-0-0\"");
+        assertThat(sent.getHeaders().getFirst("X-Sharer-User-Id")).isEqualTo("1");
+    }
+
+    @Test
+    void bookingByIdPassesETagThrough() throws Exception {
+        transport.respond("/1", HttpStatus.OK, "\"booking-1-0-0\"", "{\"id\":1}");
+
+        mockMvc.perform(dispatch(get("/bookings/1").header("X-Sharer-User-Id", 1)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"booking-1-0-0\""))
+                .andExpect(content().json("{\"id\":1}"));
+
+        assertThat(transport.requests().get(0).getHeaders().getIfNoneMatch()).isEmpty();
+    }
+
+    private RequestBuilder dispatch(RequestBuilder requestBuilder) throws Exception {
+        final MvcResult result = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return asyncDispatch(result);
+    }
+}
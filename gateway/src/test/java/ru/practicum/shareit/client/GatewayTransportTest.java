@@ -0,0 +1,227 @@
+package ru.practicum.shareit.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Оба транспорта шлюза против настоящего HTTP-сервера: тело ответа передаётся байт в байт,
+ * ответы с ошибкой возвращаются, а не выбрасываются, и только сбой соединения завершает Mono ошибкой.
+ */
+class GatewayTransportTest {
+    private static final byte[] ITEM = "{ \"id\": 1,\n  \"name\": \"Дрель\" }".getBytes(StandardCharsets.UTF_8);
+    private static final Map<String, HttpHeaders> RECEIVED = new ConcurrentHashMap<>();
+    private static final Map<String, String> RECEIVED_BODIES = new ConcurrentHashMap<>();
+    private static HttpServer server;
+    private static ExecutorService executor;
+    private static String baseUrl;
+    private static PoolingHttpClientConnectionManager connectionManager;
+    private static CloseableHttpClient httpClient;
+    private static WebClientTransportFactory reactive;
+    private static RestTemplateTransportFactory blocking;
+
+    @BeforeAll
+    static void start() throws IOException {
+        executor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", GatewayTransportTest::handle);
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+
+        final HttpClientProperties properties = new HttpClientProperties();
+        properties.setReadTimeout(Duration.ofMillis(500));
+        final HttpClientConfig config = new HttpClientConfig();
+        connectionManager = config.shareItConnectionManager(properties);
+        httpClient = config.shareItHttpClient(connectionManager, properties);
+        blocking = new RestTemplateTransportFactory(new RestTemplateBuilder(), config.shareItRequestFactory(httpClient));
+        reactive = new WebClientTransportFactory(WebClient.builder(), properties);
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        reactive.destroy();
+        httpClient.close();
+        connectionManager.close();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"blocking", "reactive"})
+    void bodyAndHeadersPassThroughUnchanged(String transport) {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Sharer-User-Id", "7");
+
+        final ResponseEntity<Object> response = create(transport, "/items")
+                .exchange(HttpMethod.GET, "/1", headers, null, null)
+                .block();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat((byte[]) response.getBody()).isEqualTo(ITEM);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"item-1\"");
+        assertThat(RECEIVED.get("/items/1").getFirst("X-Sharer-User-Id")).isEqualTo("7");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"blocking", "reactive"})
+    void errorStatusIsReturnedWithBody(String transport) {
+        final ResponseEntity<Object> response = create(transport, "/items")
+                .exchange(HttpMethod.GET, "/404", new HttpHeaders(), null, null)
+                .block();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(new String((byte[]) response.getBody(), StandardCharsets.UTF_8))
+                .isEqualTo("{\"error\":\"Вещь с id=404 не найдена!\"}");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"blocking", "reactive"})
+    void notModifiedHasNoBody(String transport) {
+        final ResponseEntity<Object> response = create(transport, "/items")
+                .exchange(HttpMethod.GET, "/304", new HttpHeaders(), null, null)
+                .block();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"item-304\"");
+        final Object body = response.getBody();
+        assertThat(body == null || ((byte[]) body).length == 0).isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"blocking", "reactive"})
+    void pathParametersAreExpandedAndBodyIsSent(String transport) {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        final ResponseEntity<Object> response = create(transport, "/bookings")
+                .exchange(HttpMethod.PATCH, "/1?approved={approved}&text={text}", headers,
+                        Map.of("approved", true, "text", "дрель & пила"), Map.of("name", "Дрель"))
+                .block();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(RECEIVED_BODIES.get("/bookings/1?approved=true&text=дрель & пила")).isEqualTo("{\"name\":\"Дрель\"}");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"blocking", "reactive"})
+    void readTimeoutFailsWithTimeout(String transport) {
+        final Throwable error = catchThrowable(() -> create(transport, "/items")
+                .exchange(HttpMethod.GET, "/slow", new HttpHeaders(), null, null)
+                .block());
+
+        assertThat(error).isNotNull();
+        assertThat(isTimeout(error)).as(String.valueOf(error)).isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"blocking", "reactive"})
+    void connectionFailureFailsMono(String transport) throws IOException {
+        final int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        final GatewayTransport closed = (transport.equals("blocking") ? blocking : reactive)
+                .create("http://localhost:" + closedPort + "/items");
+
+        final Throwable error = catchThrowable(() -> closed.exchange(HttpMethod.GET, "/1", new HttpHeaders(), null, null).block());
+
+        assertThat(error).isNotNull();
+        assertThat(isTimeout(error)).isFalse();
+    }
+
+    /**
+     * Клиенты разных префиксов берут соединения из одного пула и переиспользуют их.
+     */
+    @Test
+    void blockingClientsShareOnePool() {
+        final GatewayTransport items = blocking.create(baseUrl + "/items");
+        final GatewayTransport bookings = blocking.create(baseUrl + "/bookings");
+
+        items.exchange(HttpMethod.GET, "/1", new HttpHeaders(), null, null).block();
+        bookings.exchange(HttpMethod.GET, "/1", new HttpHeaders(), null, null).block();
+        items.exchange(HttpMethod.GET, "/1", new HttpHeaders(), null, null).block();
+
+        assertThat(connectionManager.getTotalStats().getLeased()).isZero();
+        assertThat(connectionManager.getTotalStats().getAvailable()).isEqualTo(1);
+    }
+
+    private static GatewayTransport create(String transport, String prefix) {
+        return (transport.equals("blocking") ? blocking : reactive).create(baseUrl + prefix);
+    }
+
+    private static boolean isTimeout(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InterruptedIOException || cause instanceof ReadTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        final String path = exchange.getRequestURI().getPath();
+        final String query = exchange.getRequestURI().getQuery();
+        final String key = query == null ? path : path + "?" + query;
+        RECEIVED.put(key, new HttpHeaders());
+        exchange.getRequestHeaders().forEach((name, values) -> RECEIVED.get(key).addAll(name, values));
+        RECEIVED_BODIES.put(key, new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+        exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+        switch (path) {
+            case "/items/slow":
+                try {
+                    Thread.sleep(2000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                send(exchange, 200, ITEM);
+                break;
+            case "/items/404":
+                send(exchange, 404, "{\"error\":\"Вещь с id=404 не найдена!\"}".getBytes(StandardCharsets.UTF_8));
+                break;
+            case "/items/304":
+                exchange.getResponseHeaders().set(HttpHeaders.ETAG, "\"item-304\"");
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                break;
+            default:
+                exchange.getResponseHeaders().set(HttpHeaders.ETAG, "\"item-1\"");
+                send(exchange, 200, ITEM);
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+}
@@ -0,0 +1,200 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.item.controller.ItemClient;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheTest {
+    private ResponseCacheProperties properties;
+    private ResponseCache cache;
+    private ResponseCache.Region items;
+    private ResponseCache.Region bookings;
+    private ResponseCache.Region requests;
+
+    @BeforeEach
+    void init() {
+        properties = new ResponseCacheProperties();
+        cache = new ResponseCache(properties, new SimpleMeterRegistry());
+        items = cache.region("/items", "/bookings", "/users");
+        bookings = cache.region("/bookings");
+        requests = cache.region("/requests", "/items", "/users");
+    }
+
+    @Test
+    void freshEntryIsServedWithoutLoading() {
+        final Loader loader = new Loader(HttpStatus.OK, "\"item-1\"");
+
+        assertThat(items.get("/1", 1L, null, loader).block().getBody()).isEqualTo("1");
+        assertThat(items.get("/1", 1L, null, loader).block().getBody()).isEqualTo("1");
+        assertThat(items.get("/1", 2L, null, loader).block().getBody()).isEqualTo("2");
+
+        assertThat(loader.calls).isEqualTo(2);
+    }
+
+    @Test
+    void onlyOkResponsesAreCached() {
+        final Loader loader = new Loader(HttpStatus.NOT_FOUND, null);
+
+        items.get("/1", 1L, null, loader).block();
+        items.get("/1", 1L, null, loader).block();
+
+        assertThat(loader.calls).isEqualTo(2);
+    }
+
+    @Test
+    void writeEvictsSameResourceAndSelectionsButNotOtherResources() {
+        final Loader loader = new Loader(HttpStatus.OK, null);
+        final Map<String, Object> search = Map.of("text", "saw");
+        items.get("/1", 1L, null, loader).block();
+        items.get("/2", 1L, null, loader).block();
+        items.get("/search?text={text}", 1L, search, loader).block();
+
+        items.evict("/1/comment");
+
+        items.get("/1", 1L, null, loader).block();
+        items.get("/2", 1L, null, loader).block();
+        items.get("/search?text={text}", 1L, search, loader).block();
+        assertThat(loader.calls).isEqualTo(5);
+    }
+
+    @Test
+    void writeEvictsDependentRegionsEntirely() {
+        final Loader loader = new Loader(HttpStatus.OK, null);
+        items.get("/1", 1L, null, loader).block();
+        items.get("/2", 1L, null, loader).block();
+        requests.get("/1", 1L, null, loader).block();
+
+        bookings.evict("/5");
+
+        items.get("/1", 1L, null, loader).block();
+        items.get("/2", 1L, null, loader).block();
+        requests.get("/1", 1L, null, loader).block();
+        assertThat(loader.calls).isEqualTo(5);
+
+        items.evict("/7");
+
+        requests.get("/1", 1L, null, loader).block();
+        items.get("/1", 1L, null, loader).block();
+        assertThat(loader.calls).isEqualTo(6);
+    }
+
+    @Test
+    void notModifiedExtendsEntry() throws InterruptedException {
+        properties.setTtl(Duration.ofMillis(200));
+        final Loader loader = new Loader(HttpStatus.OK, "\"item-1\"");
+        final ResponseEntity<Object> first = items.get("/1", 1L, null, loader).block();
+        Thread.sleep(300);
+
+        loader.status = HttpStatus.NOT_MODIFIED;
+        final ResponseEntity<Object> revalidated = items.get("/1", 1L, null, loader).block();
+        final ResponseEntity<Object> extended = items.get("/1", 1L, null, loader).block();
+
+        assertThat(revalidated).isSameAs(first);
+        assertThat(extended).isSameAs(first);
+        assertThat(loader.calls).isEqualTo(2);
+        assertThat(loader.conditions.get(0).getIfNoneMatch()).isEmpty();
+        assertThat(loader.conditions.get(1).getIfNoneMatch()).containsExactly("\"item-1\"");
+    }
+
+    @Test
+    void staleEntryWithoutETagIsLoadedUnconditionally() throws InterruptedException {
+        properties.setTtl(Duration.ofMillis(50));
+        final Loader loader = new Loader(HttpStatus.OK, null);
+        items.get("/1", 1L, null, loader).block();
+        Thread.sleep(100);
+
+        items.get("/1", 1L, null, loader).block();
+
+        assertThat(loader.calls).isEqualTo(2);
+        assertThat(loader.conditions.get(1).getIfNoneMatch()).isEmpty();
+    }
+
+    /**
+     * Ответ, загруженный до записи, мог её не увидеть и в кеш не попадает.
+     */
+    @Test
+    void loadStartedBeforeEvictionIsNotStored() {
+        final Loader loader = new Loader(HttpStatus.OK, null);
+        final Function<HttpHeaders, Mono<ResponseEntity<Object>>> racing = conditional -> {
+            items.evict("/1");
+            return loader.apply(conditional);
+        };
+
+        items.get("/1", 1L, null, racing).block();
+        items.get("/1", 1L, null, loader).block();
+
+        assertThat(loader.calls).isEqualTo(2);
+    }
+
+    @Test
+    void disabledCacheAlwaysLoads() {
+        properties.setEnabled(false);
+        final Loader loader = new Loader(HttpStatus.OK, null);
+
+        items.get("/1", 1L, null, loader).block();
+        items.get("/1", 1L, null, loader).block();
+
+        assertThat(loader.calls).isEqualTo(2);
+    }
+
+    @Test
+    void failedWriteDoesNotEvict() {
+        final StubTransport transport = new StubTransport()
+                .respond("/1", HttpStatus.OK, null, "{\"id\":1}")
+                .respond("/1", HttpStatus.NOT_FOUND, null, "{\"error\":\"not found\"}")
+                .respond("/1", HttpStatus.OK, null, "{\"id\":1,\"name\":\"Fan\"}")
+                .respond("/1", HttpStatus.OK, null, "{\"id\":1,\"name\":\"Fan\"}");
+        final ItemClient client = new ItemClient("http://server", transport, cache);
+        client.getItemById(1L, 1L).block();
+
+        assertThat(client.updateItem(ItemDto.builder().name("Fan").build(), 2L, 1L).block().getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+        client.getItemById(1L, 1L).block();
+        assertThat(transport.requests()).hasSize(2);
+
+        client.updateItem(ItemDto.builder().name("Fan").build(), 1L, 1L).block();
+        assertThat(new String((byte[]) client.getItemById(1L, 1L).block().getBody()))
+                .isEqualTo("{\"id\":1,\"name\":\"Fan\"}");
+        assertThat(transport.requests()).hasSize(4);
+    }
+
+    /**
+     * Загрузчик отвечает телом с номером вызова и запоминает заголовки условного запроса.
+     */
+    private static class Loader implements Function<HttpHeaders, Mono<ResponseEntity<Object>>> {
+        private final String eTag;
+        private final List<HttpHeaders> conditions = new ArrayList<>();
+        private HttpStatus status;
+        private int calls;
+
+        Loader(HttpStatus status, String eTag) {
+            this.status = status;
+            this.eTag = eTag;
+        }
+
+        @Override
+        public Mono<ResponseEntity<Object>> apply(HttpHeaders conditional) {
+            calls++;
+            conditions.add(conditional);
+            final HttpHeaders headers = new HttpHeaders();
+            if (eTag != null) {
+                headers.setETag(eTag);
+            }
+            return Mono.just(new ResponseEntity<>(status == HttpStatus.OK ? String.valueOf(calls) : null, headers, status));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package ru.practicum.shareit.client;
+
+import lombok.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Транспорт без сервера: отдаёт заданные для пути ответы по очереди и запоминает запросы.
+ */
+public class StubTransport implements GatewayTransport, GatewayTransportFactory {
+    private final Map<String, Deque<Mono<ResponseEntity<Object>>>> responses = new HashMap<>();
+    private final List<Request> requests = Collections.synchronizedList(new ArrayList<>());
+
+    public StubTransport respond(String path, HttpStatus status, @Nullable String eTag, @Nullable String json) {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (eTag != null) {
+            headers.setETag(eTag);
+        }
+        final byte[] body = json == null ? null : json.getBytes(StandardCharsets.UTF_8);
+        return respond(path, Mono.just(new ResponseEntity<>(body, headers, status)));
+    }
+
+    public synchronized StubTransport respond(String path, Mono<ResponseEntity<Object>> response) {
+        responses.computeIfAbsent(path, it -> new ArrayDeque<>()).add(response);
+        return this;
+    }
+
+    public List<Request> requests() {
+        return List.copyOf(requests);
+    }
+
+    @Override
+    public GatewayTransport create(String baseUrl) {
+        return this;
+    }
+
+    @Override
+    public Mono<ResponseEntity<Object>> exchange(HttpMethod method, String path, HttpHeaders headers,
+                                                 @Nullable Map<String, Object> parameters, @Nullable Object body) {
+        return Mono.defer(() -> {
+            requests.add(new Request(method, path, HttpHeaders.readOnlyHttpHeaders(headers)));
+            return next(path);
+        });
+    }
+
+    private synchronized Mono<ResponseEntity<Object>> next(String path) {
+        final Deque<Mono<ResponseEntity<Object>>> queue = responses.get(path);
+        if (queue == null || queue.isEmpty()) {
+            throw new IllegalStateException(String.format("Нет заданного ответа для %s", path));
+        }
+        return queue.poll();
+    }
+
+    @Value
+    public static class Request {
+        HttpMethod method;
+        String path;
+        HttpHeaders headers;
+    }
+}
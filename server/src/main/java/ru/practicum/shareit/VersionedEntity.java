@@ -0,0 +1,14 @@
+package ru.practicum.shareit;
+
+import javax.persistence.MappedSuperclass;
+import javax.persistence.Version;
+
+/**
+ * Сущность с версией для оптимистической блокировки. Версия увеличивается Hibernate при каждом
+ * изменении строки и используется для вычисления ETag без загрузки сущности.
+ */
+@MappedSuperclass
+public abstract class VersionedEntity {
+    @Version
+    private long version;
+}
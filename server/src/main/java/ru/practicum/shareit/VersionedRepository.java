@@ -0,0 +1,14 @@
+package ru.practicum.shareit;
+
+/**
+ * Фрагмент репозитория для сущностей с версией.
+ */
+public interface VersionedRepository<T extends VersionedEntity> {
+
+    /**
+     * Сразу увеличивает версию сущности, даже если её строка не изменилась. Нужно, когда от сущности
+     * зависит ответ, в который входят другие строки: комментарии вещи, вещи-ответы на запрос.
+     * @param entity сущность, загруженная в текущей транзакции.
+     */
+    void incrementVersion(T entity);
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+
+public class VersionedRepositoryImpl<T extends VersionedEntity> implements VersionedRepository<T> {
+    @PersistenceContext
+    private EntityManager em;
+
+    /**
+     * Блокировка уже загруженной сущности выполняется одним UPDATE версии, без SELECT ... FOR UPDATE.
+     */
+    @Override
+    public void incrementVersion(T entity) {
+        em.lock(entity, LockModeType.PESSIMISTIC_FORCE_INCREMENT);
+    }
+}
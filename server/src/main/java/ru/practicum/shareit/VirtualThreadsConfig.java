@@ -0,0 +1,40 @@
+package ru.practicum.shareit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Обработка запросов Tomcat в виртуальных потоках (JDK 21+, сборка с профилем virtual-threads).
+ * Включается свойством shareit.threads.virtual=true; фабрика вызывается через reflection,
+ * чтобы основная сборка оставалась на Java 11.
+ * <p>
+ * Такой же класс есть в модуле gateway: общего модуля у сервера и шлюза нет, как и для DTO,
+ * поэтому изменения нужно вносить в обе копии.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "shareit.threads.virtual", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadsExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("shareit.threads.virtual=true требует JDK 21+, текущая версия "
+                    + Runtime.version(), e);
+        }
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer(ExecutorService virtualThreadsExecutor) {
+        log.info("Tomcat обрабатывает запросы в виртуальных потоках");
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadsExecutor);
+    }
+}
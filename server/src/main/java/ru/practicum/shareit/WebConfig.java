@@ -0,0 +1,25 @@
+package ru.practicum.shareit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.practicum.shareit.user.UserPrincipalArgumentResolver;
+import ru.practicum.shareit.user.service.UserExistenceCache;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+    private final UserExistenceCache userExistenceCache;
+
+    @Autowired
+    public WebConfig(UserExistenceCache userExistenceCache) {
+        this.userExistenceCache = userExistenceCache;
+    }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new UserPrincipalArgumentResolver(userExistenceCache));
+    }
+}
@@ -1,10 +1,14 @@
 package ru.practicum.shareit.booking.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoWithEntities;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.request.KeysetCursor;
+import ru.practicum.shareit.user.UserPrincipal;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
@@ -14,7 +18,6 @@ import java.util.List;
 @RestController
 @RequestMapping(path = "/bookings")
 public class BookingController {
-
     private final BookingService bookingService;
 
     @Autowired
@@ -23,42 +26,66 @@ public class BookingController {
     }
 
     @PostMapping
-    public BookingDtoWithEntities createBooking(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public BookingDtoWithEntities createBooking(UserPrincipal user,
                                                 @Valid @RequestBody BookingDto bookingDto) {
-        return bookingService.createBooking(userId, bookingDto);
+        return bookingService.createBooking(user, bookingDto);
     }
 
     @GetMapping("/{id}")
-    public BookingDtoWithEntities findBookingById(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long id) {
-        return bookingService.findBookingById(userId, id);
+    public BookingDtoWithEntities findBookingById(UserPrincipal user, @PathVariable Long id, WebRequest request) {
+        if (request.checkNotModified(bookingService.getBookingETag(user, id))) {
+            return null;
+        }
+        return bookingService.findBookingById(user, id);
     }
 
     @GetMapping
-    public List<BookingDtoWithEntities> findAllByBookerId(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                          @RequestParam(name = "state", defaultValue = "ALL") String state,
-                                                          @RequestParam(name = "from", defaultValue = "0") @PositiveOrZero Integer from,
-                                                          @RequestParam(name = "size", defaultValue = "10") @Positive Integer size) {
-        return bookingService.findAllByBookerId(userId, state, from, size);
+    public ResponseEntity<List<BookingDtoWithEntities>> findAllByBookerId(UserPrincipal user,
+                                                                          @RequestParam(name = "state", defaultValue = "ALL") String state,
+                                                                          @RequestParam(name = "from", defaultValue = "0") @PositiveOrZero Integer from,
+                                                                          @RequestParam(name = "size", defaultValue = "10") @Positive Integer size,
+                                                                          @RequestParam(name = "after", required = false) String after) {
+        return withNextCursor(after == null ?
+                bookingService.findAllByBookerId(user, state, from, size) :
+                bookingService.findAllByBookerIdAfter(user, state, after, size), size);
     }
 
     @GetMapping("/owner")
-    public List<BookingDtoWithEntities> findAllByItemOwnerId(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                             @RequestParam(name = "state", defaultValue = "ALL") String state,
-                                                             @RequestParam(name = "from", defaultValue = "0") @PositiveOrZero Integer from,
-                                                             @RequestParam(name = "size", defaultValue = "10") @Positive Integer size) {
-        return bookingService.findAllByItemOwnerId(userId, state, from, size);
+    public ResponseEntity<List<BookingDtoWithEntities>> findAllByItemOwnerId(UserPrincipal user,
+                                                                             @RequestParam(name = "state", defaultValue = "ALL") String state,
+                                                                             @RequestParam(name = "from", defaultValue = "0") @PositiveOrZero Integer from,
+                                                                             @RequestParam(name = "size", defaultValue = "10") @Positive Integer size,
+                                                                             @RequestParam(name = "after", required = false) String after) {
+        return withNextCursor(after == null ?
+                bookingService.findAllByItemOwnerId(user, state, from, size) :
+                bookingService.findAllByItemOwnerIdAfter(user, state, after, size), size);
     }
 
     @PatchMapping("/{id}")
-    public BookingDtoWithEntities updateBooking(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public BookingDtoWithEntities updateBooking(UserPrincipal user,
                                                 @Valid @PathVariable Long id,
                                                 @RequestParam(name = "approved") Boolean approved) {
-        return bookingService.updateBooking(userId, id, approved);
+        return bookingService.updateBooking(user, id, approved);
     }
 
     @DeleteMapping("/{id}")
-    public void deleteBookingById(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public void deleteBookingById(UserPrincipal user,
                                   @PathVariable Long id) {
-        bookingService.deleteBookingById(userId, id);
+        bookingService.deleteBookingById(user, id);
+    }
+
+    /**
+     * Для полной страницы возвращает в заголовке курсор последнего бронирования,
+     * с которым можно запросить следующую страницу через after.
+     */
+    private static ResponseEntity<List<BookingDtoWithEntities>> withNextCursor(List<BookingDtoWithEntities> bookings,
+                                                                               int size) {
+        if (bookings.isEmpty() || bookings.size() < size) {
+            return ResponseEntity.ok(bookings);
+        }
+        final BookingDtoWithEntities last = bookings.get(bookings.size() - 1);
+        return ResponseEntity.ok()
+                .header(KeysetCursor.NEXT_CURSOR_HEADER, new KeysetCursor(last.getStart(), last.getId()).encode())
+                .body(bookings);
     }
 }
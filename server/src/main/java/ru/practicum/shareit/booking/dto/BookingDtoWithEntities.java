@@ -2,7 +2,7 @@ package ru.practicum.shareit.booking.dto;
 
 import lombok.*;
 import ru.practicum.shareit.booking.model.BookingStatus;
-import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.dto.ItemShortDto;
 import ru.practicum.shareit.user.dto.BookerDto;
 
 import java.time.LocalDateTime;
@@ -17,6 +17,14 @@ public class BookingDtoWithEntities {
     private LocalDateTime start;
     private LocalDateTime end;
     private BookingStatus status;
-    private Item item;
+    private ItemShortDto item;
     private BookerDto booker;
+
+    /**
+     * Конструктор для JPQL-выражения SELECT new: вложенные объекты в нём не создаются.
+     */
+    public BookingDtoWithEntities(Long id, LocalDateTime start, LocalDateTime end, BookingStatus status,
+                                  Long itemId, String itemName, Long bookerId) {
+        this(id, start, end, status, new ItemShortDto(itemId, itemName), new BookerDto(bookerId));
+    }
 }
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Версии бронирования и вложенной в ответ вещи.
+ */
+@Getter
+@AllArgsConstructor
+public class BookingVersionRow {
+    private final Long version;
+    private final Long itemVersion;
+}
@@ -1,39 +1,58 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.dto.BookingVersionRow;
 import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.model.BookingStatus;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+/**
+ * Списки бронирований по роли и состоянию строятся в BookingRepositoryImpl.
+ */
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
 
-    List<Booking> findAllByItemOwnerId(Long userId, Pageable pageable);
-
-    List<Booking> findAllByItemOwnerId(Long userId, Sort sort);
-
-    List<Booking> findAllByItemOwnerId(Long userId);
-
-    List<Booking> findAllByBookerId(Long userId, Pageable pageable);
+    /**
+     * Вещь нужна для ответа и проверки владельца (по внешнему ключу), поэтому загружается тем же запросом.
+     */
+    @Override
+    @EntityGraph(attributePaths = "item")
+    Optional<Booking> findById(Long id);
 
     List<Booking> findAllByItemId(Long itemId);
 
-    List<Booking> findAllByItemOwnerIdAndStartIsBeforeAndEndIsAfter(Long userId, LocalDateTime isBefore, LocalDateTime isAfter, Pageable pageable);
-
-    List<Booking> findAllByItemOwnerIdAndEndIsBefore(Long userId, LocalDateTime date, Pageable pageable);
-
-    List<Booking> findAllByItemOwnerIdAndStartIsAfter(Long userId, LocalDateTime date, Pageable pageable);
-
-    List<Booking> findAllByItemOwnerIdAndStatusEquals(Long userId, BookingStatus status, Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndStartIsBeforeAndEndIsAfter(Long userId, LocalDateTime isBefore, LocalDateTime isAfter, Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndEndIsBefore(Long userId, LocalDateTime date, Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndStartIsAfter(Long userId, LocalDateTime date, Pageable pageable);
-
-    List<Booking> findAllByBookerIdAndStatusEquals(Long userId, BookingStatus status, Pageable pageable);
+    /**
+     * Данные для ETag бронирования одним запросом, без загрузки сущностей. Строка возвращается,
+     * только если пользователь - автор бронирования или владелец вещи.
+     */
+    @Query("SELECT new ru.practicum.shareit.booking.dto.BookingVersionRow(b.version, i.version) " +
+            "FROM Booking b JOIN b.item i " +
+            "WHERE b.id = :id AND (b.booker.id = :userId OR i.owner.id = :userId)")
+    Optional<BookingVersionRow> findVersionByIdAndParticipantId(@Param("id") Long id, @Param("userId") Long userId);
+
+    /**
+     * Последнее (start до now) и ближайшее следующее (start после now) подтверждённые бронирования
+     * для каждой вещи из списка. Возвращает не более двух строк на вещь.
+     * @param itemIds Item ids.
+     * @param now Текущее время.
+     * @return List<Booking>.
+     */
+    @Query(value = "SELECT id, start_date, end_date, item_id, booker_id, status, version FROM (" +
+            "SELECT b.*, ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.start_date DESC, b.id DESC) AS rn " +
+            "FROM bookings AS b " +
+            "WHERE b.item_id IN (:itemIds) AND b.status = 'APPROVED' AND b.start_date < :now" +
+            ") AS last_booking WHERE rn = 1 " +
+            "UNION ALL " +
+            "SELECT id, start_date, end_date, item_id, booker_id, status, version FROM (" +
+            "SELECT b.*, ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.start_date, b.id) AS rn " +
+            "FROM bookings AS b " +
+            "WHERE b.item_id IN (:itemIds) AND b.status = 'APPROVED' AND b.start_date > :now" +
+            ") AS next_booking WHERE rn = 1", nativeQuery = true)
+    List<Booking> findLastAndNextApprovedBookings(@Param("itemIds") Collection<Long> itemIds,
+                                                  @Param("now") LocalDateTime now);
 }
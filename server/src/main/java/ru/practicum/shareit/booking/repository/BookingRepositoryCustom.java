@@ -0,0 +1,60 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.BookingDtoWithEntities;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.request.KeysetCursor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface BookingRepositoryCustom {
+
+    /**
+     * Бронирования пользователя в состоянии state, постранично через offset.
+     * @param bookerId User id.
+     * @param state Booking state.
+     * @param currentTime момент, относительно которого определяются CURRENT, PAST и FUTURE.
+     * @param pageable параметры страницы; без сортировки - по убыванию (start, id).
+     * @return List<BookingDtoWithEntities>.
+     */
+    List<BookingDtoWithEntities> findAllByBookerId(long bookerId, BookingState state, LocalDateTime currentTime,
+                                                   Pageable pageable);
+
+    /**
+     * Бронирования вещей владельца в состоянии state, постранично через offset.
+     * @param ownerId User id, владелец(owner) вещей.
+     * @param state Booking state.
+     * @param currentTime момент, относительно которого определяются CURRENT, PAST и FUTURE.
+     * @param pageable параметры страницы; без сортировки - по убыванию (start, id).
+     * @return List<BookingDtoWithEntities>.
+     */
+    List<BookingDtoWithEntities> findAllByItemOwnerId(long ownerId, BookingState state, LocalDateTime currentTime,
+                                                      Pageable pageable);
+
+    /**
+     * Бронирования пользователя в состоянии state, идущие после курсора
+     * в порядке убывания (start, id).
+     * @param bookerId User id.
+     * @param state Booking state.
+     * @param currentTime момент, относительно которого определяются CURRENT, PAST и FUTURE.
+     * @param after позиция последнего полученного бронирования.
+     * @param size размер страницы.
+     * @return List<BookingDtoWithEntities>.
+     */
+    List<BookingDtoWithEntities> findAllByBookerIdAfter(long bookerId, BookingState state, LocalDateTime currentTime,
+                                                        KeysetCursor after, int size);
+
+    /**
+     * Бронирования вещей владельца в состоянии state, идущие после курсора
+     * в порядке убывания (start, id).
+     * @param ownerId User id, владелец(owner) вещей.
+     * @param state Booking state.
+     * @param currentTime момент, относительно которого определяются CURRENT, PAST и FUTURE.
+     * @param after позиция последнего полученного бронирования.
+     * @param size размер страницы.
+     * @return List<BookingDtoWithEntities>.
+     */
+    List<BookingDtoWithEntities> findAllByItemOwnerIdAfter(long ownerId, BookingState state, LocalDateTime currentTime,
+                                                           KeysetCursor after, int size);
+}
@@ -0,0 +1,120 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import ru.practicum.shareit.booking.dto.BookingDtoWithEntities;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.KeysetCursor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Все выборки списков бронирований строятся одним Criteria-запросом: роль пользователя, состояние
+ * и способ постраничного вывода (offset или курсор) добавляют к нему только свои условия.
+ * Строки сразу собираются в BookingDtoWithEntities, без загрузки сущностей.
+ */
+public class BookingRepositoryImpl implements BookingRepositoryCustom {
+    private static final BiFunction<Root<Booking>, Join<Booking, Item>, Path<Long>> BOOKER =
+            (booking, item) -> booking.get("booker").get("id");
+    private static final BiFunction<Root<Booking>, Join<Booking, Item>, Path<Long>> OWNER =
+            (booking, item) -> item.get("owner").get("id");
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public List<BookingDtoWithEntities> findAllByBookerId(long bookerId, BookingState state, LocalDateTime currentTime,
+                                                          Pageable pageable) {
+        return findAll(BOOKER, bookerId, state, currentTime, null, pageable);
+    }
+
+    @Override
+    public List<BookingDtoWithEntities> findAllByItemOwnerId(long ownerId, BookingState state, LocalDateTime currentTime,
+                                                             Pageable pageable) {
+        return findAll(OWNER, ownerId, state, currentTime, null, pageable);
+    }
+
+    @Override
+    public List<BookingDtoWithEntities> findAllByBookerIdAfter(long bookerId, BookingState state, LocalDateTime currentTime,
+                                                               KeysetCursor after, int size) {
+        return findAll(BOOKER, bookerId, state, currentTime, after, Pageable.ofSize(size));
+    }
+
+    @Override
+    public List<BookingDtoWithEntities> findAllByItemOwnerIdAfter(long ownerId, BookingState state, LocalDateTime currentTime,
+                                                                  KeysetCursor after, int size) {
+        return findAll(OWNER, ownerId, state, currentTime, after, Pageable.ofSize(size));
+    }
+
+    /**
+     * Без сортировки в pageable и всегда при курсоре порядок - (start, id) по убыванию, как в индексах
+     * idx_bookings_booker_start и idx_bookings_item_start.
+     * (start, id) < (after.timestamp, after.id) записано через OR, так как в JPQL нет сравнения кортежей.
+     */
+    private List<BookingDtoWithEntities> findAll(BiFunction<Root<Booking>, Join<Booking, Item>, Path<Long>> user,
+                                                 long userId, BookingState state, LocalDateTime currentTime,
+                                                 KeysetCursor after, Pageable pageable) {
+        final CriteriaBuilder cb = em.getCriteriaBuilder();
+        final CriteriaQuery<BookingDtoWithEntities> query = cb.createQuery(BookingDtoWithEntities.class);
+        final Root<Booking> booking = query.from(Booking.class);
+        final Join<Booking, Item> item = booking.join("item");
+        final Path<LocalDateTime> start = booking.get("start");
+        final Path<Long> id = booking.get("id");
+        final List<Predicate> predicates = new ArrayList<>();
+
+        predicates.add(cb.equal(user.apply(booking, item), userId));
+        switch (state) {
+            case CURRENT:
+                predicates.add(cb.lessThan(start, currentTime));
+                predicates.add(cb.greaterThan(booking.get("end"), currentTime));
+                break;
+            case PAST:
+                predicates.add(cb.lessThan(booking.get("end"), currentTime));
+                break;
+            case FUTURE:
+                predicates.add(cb.greaterThan(start, currentTime));
+                break;
+            case WAITING:
+                predicates.add(cb.equal(booking.get("status"), BookingStatus.WAITING));
+                break;
+            case REJECTED:
+                predicates.add(cb.equal(booking.get("status"), BookingStatus.REJECTED));
+                break;
+            default:
+                break;
+        }
+        if (after != null) {
+            predicates.add(cb.or(
+                    cb.lessThan(start, after.getTimestamp()),
+                    cb.and(cb.equal(start, after.getTimestamp()), cb.lessThan(id, after.getId()))
+            ));
+        }
+
+        query.select(cb.construct(BookingDtoWithEntities.class, id, start, booking.get("end"), booking.get("status"),
+                        item.get("id"), item.get("name"), booking.get("booker").get("id")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(after == null && pageable.getSort().isSorted() ?
+                        QueryUtils.toOrders(pageable.getSort(), booking, cb) :
+                        List.of(cb.desc(start), cb.desc(id)));
+        final TypedQuery<BookingDtoWithEntities> typedQuery = em.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset())
+                    .setMaxResults(pageable.getPageSize());
+        }
+        return typedQuery.getResultList();
+    }
+}
@@ -2,6 +2,7 @@ package ru.practicum.shareit.booking.service;
 
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoWithEntities;
+import ru.practicum.shareit.user.UserPrincipal;
 
 import java.util.List;
 
@@ -10,48 +11,76 @@ public interface BookingService {
     /**
      * Создание бронирования.
      * @param bookingDto Entity.
-     * @param userId User id.
+     * @param user User.
      * @return BookingDtoWithEntities.
      */
-    BookingDtoWithEntities createBooking(Long userId, BookingDto bookingDto);
+    BookingDtoWithEntities createBooking(UserPrincipal user, BookingDto bookingDto);
 
     /**
      * Поиск бронирования по id.
-     * @param userId User id.
+     * @param user User.
      * @param id Booking id.
      * @return BookingDtoWithEntities.
      */
-    BookingDtoWithEntities findBookingById(Long userId, Long id);
+    BookingDtoWithEntities findBookingById(UserPrincipal user, Long id);
+
+    /**
+     * ETag ответа findBookingById.
+     * @param user User.
+     * @param id Booking id.
+     * @return ETag или null, если бронирование не найдено или недоступно пользователю.
+     */
+    String getBookingETag(UserPrincipal user, Long id);
 
     /**
      * Поиск всех бронирований по бронирующему, сортировка по убыванию даты старта.
-     * @param userId User id.
+     * @param user User.
+     * @param state Booking state.
+     * @return List BookingDtoWithEntities.
+     */
+    List<BookingDtoWithEntities> findAllByBookerId(UserPrincipal user, String state, Integer from, Integer size);
+
+    /**
+     * Поиск бронирований по бронирующему после курсора, сортировка по убыванию даты старта и id.
+     * @param user User.
      * @param state Booking state.
+     * @param after курсор последнего полученного бронирования.
+     * @param size размер страницы.
      * @return List BookingDtoWithEntities.
      */
-    List<BookingDtoWithEntities> findAllByBookerId(Long userId, String state, Integer from, Integer size);
+    List<BookingDtoWithEntities> findAllByBookerIdAfter(UserPrincipal user, String state, String after, Integer size);
 
     /**
      * Поиск всех бронирований по владельцу, сортировка по убыванию даты старта.
-     * @param userId User id.
+     * @param user User.
+     * @param state Booking state.
+     * @return List BookingDtoWithEntities.
+     */
+    List<BookingDtoWithEntities> findAllByItemOwnerId(UserPrincipal user, String state, Integer from, Integer size);
+
+    /**
+     * Поиск бронирований по владельцу после курсора, сортировка по убыванию даты старта и id.
+     * @param user User.
      * @param state Booking state.
+     * @param after курсор последнего полученного бронирования.
+     * @param size размер страницы.
      * @return List BookingDtoWithEntities.
      */
-    List<BookingDtoWithEntities> findAllByItemOwnerId(Long userId, String state, Integer from, Integer size);
+    List<BookingDtoWithEntities> findAllByItemOwnerIdAfter(UserPrincipal user, String state, String after, Integer size);
 
     /**
      * Обновить бронирование по id. Подтверждение или отклонение запроса на бронирование.
-     * @param userId User id.
+     * @param user User.
      * @param id Booking id.
      * @param approved Параметр принимает true или false.
      * @return BookingDtoWithEntities.
      */
-    BookingDtoWithEntities updateBooking(Long userId, Long id, Boolean approved);
+    BookingDtoWithEntities updateBooking(UserPrincipal user, Long id, Boolean approved);
 
     /**
      * Удалить бронирование по id.
-     * @param userId User id.
+     * @param user User.
      * @param id Booking id.
      */
-    void deleteBookingById(Long userId, Long id);
+    void deleteBookingById(UserPrincipal user, Long id);
 }
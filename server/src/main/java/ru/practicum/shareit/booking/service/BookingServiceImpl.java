@@ -15,7 +15,9 @@ import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.*;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.KeysetCursor;
 import ru.practicum.shareit.request.MyPageRequest;
+import ru.practicum.shareit.user.UserPrincipal;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
@@ -24,7 +26,6 @@ import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 
-import static java.util.stream.Collectors.toList;
 import static org.springframework.data.domain.Sort.Direction.DESC;
 
 @Service
@@ -46,29 +47,24 @@ public class BookingServiceImpl implements BookingService {
 
     @Transactional
     @Override
-    public BookingDtoWithEntities createBooking(Long userId, BookingDto bookingDto) {
-        final User user = userRepository.findById(userId).orElseThrow(
-                () -> new EntityNotFoundException(String.format("Пользователь с id=%d не найден!", userId))
-        );
+    public BookingDtoWithEntities createBooking(UserPrincipal user, BookingDto bookingDto) {
         final Item item = itemRepository.findById(bookingDto.getItemId()).orElseThrow(
                 () -> new ItemNotFoundException(String.format("Вещь с id=%d не найдена!", bookingDto.getItemId()))
         );
         if (item.getOwner().getId().equals(user.getId())) {
-            throw new UserNotFoundException(String.format("Пользователь с userId=%d является владельцем данной вещи!", userId));
+            throw new UserNotFoundException(String.format("Пользователь с userId=%d является владельцем данной вещи!", user.getId()));
         }
         if (!item.getAvailable()) {
             throw new BookingStatusException(String.format("Вещь available=%b, бронирование отклонено!", item.getAvailable()));
         }
-        final Booking booking = BookingMapper.mapToBooking(bookingDto, BookingStatus.WAITING, item, user);
+        final Booking booking = BookingMapper.mapToBooking(bookingDto, BookingStatus.WAITING, item,
+                userRepository.getReferenceById(user.getId()));
         final Booking bookingToSave = bookingRepository.save(booking);
         return BookingMapper.mapToBookingDtoWithEntities(bookingToSave);
     }
 
     @Override
-    public BookingDtoWithEntities findBookingById(Long userId, Long id) {
-        final User user = userRepository.findById(userId).orElseThrow(
-                () -> new UserNotFoundException(String.format("Пользователь с id=%d не найден!", userId))
-        );
+    public BookingDtoWithEntities findBookingById(UserPrincipal user, Long id) {
         final Booking booking = bookingRepository.findById(id).orElseThrow(
                 () -> new BookingNotFoundException(String.format("Бронирование с id=%d не найдено!", id))
         );
@@ -78,49 +74,56 @@ public class BookingServiceImpl implements BookingService {
         if (booker.getId().equals(user.getId()) || owner.getId().equals(user.getId())) {
             return BookingMapper.mapToBookingDtoWithEntities(booking);
         }
-        throw new UserNotFoundException(String.format("Пользователь с id=%d не имеет прав на осуществление данного запроса!", userId));
+        throw new UserNotFoundException(String.format("Пользователь с id=%d не имеет прав на осуществление данного запроса!", user.getId()));
     }
 
     @Override
-    public List<BookingDtoWithEntities> findAllByBookerId(Long userId, String state, Integer from, Integer size) {
-        final User user = userRepository.findById(userId).orElseThrow(
-                () -> new EntityNotFoundException(String.format("Пользователь с id=%d не найден!", userId))
-        );
-        final BookingState bookingState = BookingState.from(state);
-        if (bookingState == null) {
-            throw new BookingStateExistsException("Unknown state: UNSUPPORTED_STATUS");
-        }
-        final MyPageRequest pageRequest = new MyPageRequest(from, size, Sort.by(DESC, "start"));
-        return findAllByStateBooker(user.getId(), bookingState, pageRequest);
+    public String getBookingETag(UserPrincipal user, Long id) {
+        return bookingRepository.findVersionByIdAndParticipantId(id, user.getId())
+                .map(it -> String.format("booking-%d-%d-%d", id, it.getVersion(), it.getItemVersion()))
+                .orElse(null);
     }
 
     @Override
-    public List<BookingDtoWithEntities> findAllByItemOwnerId(Long userId, String state, Integer from, Integer size) {
-        final User user = userRepository.findById(userId).orElseThrow(
-                () -> new EntityNotFoundException(String.format("Пользователь с id=%d не найден!", userId))
-        );
-        final BookingState bookingState = BookingState.from(state);
-        if (bookingState == null) {
-            throw new BookingStateExistsException("Unknown state: UNSUPPORTED_STATUS");
-        }
-        final MyPageRequest pageRequest = new MyPageRequest(from, size, Sort.by(DESC, "start"));
-        return findAllByStateOwner(user.getId(), bookingState, pageRequest);
+    public List<BookingDtoWithEntities> findAllByBookerId(UserPrincipal user, String state, Integer from, Integer size) {
+        final BookingState bookingState = getBookingState(state);
+        final LocalDateTime currentTime = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        final MyPageRequest pageRequest = new MyPageRequest(from, size, Sort.by(DESC, "start", "id"));
+        return bookingRepository.findAllByBookerId(user.getId(), bookingState, currentTime, pageRequest);
+    }
+
+    @Override
+    public List<BookingDtoWithEntities> findAllByBookerIdAfter(UserPrincipal user, String state, String after, Integer size) {
+        final BookingState bookingState = getBookingState(state);
+        final LocalDateTime currentTime = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        return bookingRepository.findAllByBookerIdAfter(user.getId(), bookingState, currentTime,
+                KeysetCursor.decode(after), size);
+    }
+
+    @Override
+    public List<BookingDtoWithEntities> findAllByItemOwnerId(UserPrincipal user, String state, Integer from, Integer size) {
+        final BookingState bookingState = getBookingState(state);
+        final LocalDateTime currentTime = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        final MyPageRequest pageRequest = new MyPageRequest(from, size, Sort.by(DESC, "start", "id"));
+        return bookingRepository.findAllByItemOwnerId(user.getId(), bookingState, currentTime, pageRequest);
+    }
+
+    @Override
+    public List<BookingDtoWithEntities> findAllByItemOwnerIdAfter(UserPrincipal user, String state, String after, Integer size) {
+        final BookingState bookingState = getBookingState(state);
+        final LocalDateTime currentTime = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        return bookingRepository.findAllByItemOwnerIdAfter(user.getId(), bookingState, currentTime,
+                KeysetCursor.decode(after), size);
     }
 
     @Override
     @Transactional
-    public BookingDtoWithEntities updateBooking(Long userId, Long id, Boolean approved) {
-        final User user = userRepository.findById(userId).orElseThrow(
-                () -> new EntityNotFoundException(String.format("Пользователь с id=%d не найден!", userId))
-        );
+    public BookingDtoWithEntities updateBooking(UserPrincipal user, Long id, Boolean approved) {
         final Booking booking = bookingRepository.findById(id).orElseThrow(
                 () -> new EntityNotFoundException(String.format("Бронирование с id=%d не найдено!", id))
         );
-        final Item item = itemRepository.findById(booking.getItem().getId()).orElseThrow(
-                () -> new EntityNotFoundException(String.format("Вещь с id=%d не найдена!", booking.getItem().getId()))
-        );
-        if (!item.getOwner().getId().equals(user.getId())) {
-            throw new UserNotFoundException(String.format("Пользователь с userId=%d не является владельцем данной вещи!", userId));
+        if (!booking.getItem().getOwner().getId().equals(user.getId())) {
+            throw new UserNotFoundException(String.format("Пользователь с userId=%d не является владельцем данной вещи!", user.getId()));
         }
         if (approved && booking.getStatus() == BookingStatus.WAITING) {
             booking.setStatus(BookingStatus.APPROVED);
@@ -135,10 +138,7 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     @Transactional
-    public void deleteBookingById(Long userId, Long id) {
-        final User user = userRepository.findById(userId).orElseThrow(
-                () -> new EntityNotFoundException(String.format("Пользователь с id=%d не найден!", userId))
-        );
+    public void deleteBookingById(UserPrincipal user, Long id) {
         final Booking booking = bookingRepository.findById(id).orElseThrow(
                 () -> new EntityNotFoundException(String.format("Бронирование с id=%d не найдено!", id))
         );
@@ -147,81 +147,15 @@ public class BookingServiceImpl implements BookingService {
         if (booker.getId().equals(user.getId()) || owner.equals(user.getId())) {
             bookingRepository.deleteById(booking.getId());
         } else {
-            throw new EntityNotFoundException(String.format("Пользователь с id=%d не имеет права на удаление!", userId));
+            throw new EntityNotFoundException(String.format("Пользователь с id=%d не имеет права на удаление!", user.getId()));
         }
     }
 
-    private List<BookingDtoWithEntities> findAllByStateOwner(Long userId, BookingState state, MyPageRequest pageRequest) {
-        final LocalDateTime currentTime = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
-
-        switch (state) {
-            case CURRENT: {
-                return bookingRepository.findAllByItemOwnerIdAndStartIsBeforeAndEndIsAfter(userId, currentTime, currentTime, pageRequest).stream()
-                        .map(BookingMapper::mapToBookingDtoWithEntities)
-                        .collect(toList());
-            }
-            case PAST: {
-                return bookingRepository.findAllByItemOwnerIdAndEndIsBefore(userId, currentTime, pageRequest).stream()
-                        .map(BookingMapper::mapToBookingDtoWithEntities)
-                        .collect(toList());
-            }
-            case FUTURE: {
-                return bookingRepository.findAllByItemOwnerIdAndStartIsAfter(userId, currentTime, pageRequest).stream()
-                        .map(BookingMapper::mapToBookingDtoWithEntities)
-                        .collect(toList());
-            }
-            case WAITING: {
-                return bookingRepository.findAllByItemOwnerIdAndStatusEquals(userId, BookingStatus.WAITING, pageRequest).stream()
-                        .map(BookingMapper::mapToBookingDtoWithEntities)
-                        .collect(toList());
-            }
-            case REJECTED: {
-                return bookingRepository.findAllByItemOwnerIdAndStatusEquals(userId, BookingStatus.REJECTED, pageRequest).stream()
-                        .map(BookingMapper::mapToBookingDtoWithEntities)
-                        .collect(toList());
-            }
-            default: {
-                return bookingRepository.findAllByItemOwnerId(userId, pageRequest).stream()
-                        .map(BookingMapper::mapToBookingDtoWithEntities)
-                        .collect(toList());
-            }
-        }
-    }
-
-    private List<BookingDtoWithEntities> findAllByStateBooker(Long userId, BookingState state, MyPageRequest pageRequest) {
-        final LocalDateTime currentTime = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
-
-        switch (state) {
-            case CURRENT: {
-                return bookingRepository.findAllByBookerIdAndStartIsBeforeAndEndIsAfter(userId, currentTime, currentTime, pageRequest).stream()
-                        .map(BookingMapper::mapToBookingDtoWithEntities)
-                        .collect(toList());
-            }
-            case PAST: {
-                return bookingRepository.findAllByBookerIdAndEndIsBefore(userId, currentTime, pageRequest).stream()
-                        .map(BookingMapper::mapToBookingDtoWithEntities)
-                        .collect(toList());
-            }
-            case FUTURE: {
-                return bookingRepository.findAllByBookerIdAndStartIsAfter(userId, currentTime, pageRequest).stream()
-                        .map(BookingMapper::mapToBookingDtoWithEntities)
-                        .collect(toList());
-            }
-            case WAITING: {
-                return bookingRepository.findAllByBookerIdAndStatusEquals(userId, BookingStatus.WAITING, pageRequest).stream()
-                        .map(BookingMapper::mapToBookingDtoWithEntities)
-                        .collect(toList());
-            }
-            case REJECTED: {
-                return bookingRepository.findAllByBookerIdAndStatusEquals(userId, BookingStatus.REJECTED, pageRequest).stream()
-                        .map(BookingMapper::mapToBookingDtoWithEntities)
-                        .collect(toList());
-            }
-            default: {
-                return bookingRepository.findAllByBookerId(userId, pageRequest).stream()
-                        .map(BookingMapper::mapToBookingDtoWithEntities)
-                        .collect(toList());
-            }
+    private BookingState getBookingState(String state) {
+        final BookingState bookingState = BookingState.from(state);
+        if (bookingState == null) {
+            throw new BookingStateExistsException("Unknown state: UNSUPPORTED_STATUS");
         }
+        return bookingState;
     }
 }
@@ -2,12 +2,15 @@ package ru.practicum.shareit.item.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentWithInfoDto;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.item.dto.ItemDto;
-import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.UserPrincipal;
 
 import javax.validation.Valid;
 import java.util.List;
@@ -15,6 +18,7 @@ import java.util.List;
 @RestController
 @RequestMapping(path = "/items")
 public class ItemController {
+    public static final String HAS_NEXT_HEADER = "X-Has-Next";
 
     private final ItemService itemService;
 
@@ -24,45 +28,54 @@ public class ItemController {
     }
 
     @GetMapping
-    public List<ItemDto> getAllItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public List<ItemDto> getAllItems(UserPrincipal user,
                                      @RequestParam(name = "page", defaultValue = "0") int page,
                                      @RequestParam(name = "size", defaultValue = "10") int size) {
-        return itemService.getItems(userId, page, size);
+        return itemService.getItems(user, page, size);
     }
 
     @GetMapping("/{itemId}")
-    public ItemDto getItemById(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long itemId) {
-        return itemService.getItemById(userId, itemId);
+    public ItemDto getItemById(UserPrincipal user, @PathVariable Long itemId, WebRequest request) {
+        if (request.checkNotModified(itemService.getItemETag(user, itemId))) {
+            return null;
+        }
+        return itemService.getItemById(user, itemId);
     }
 
     @PostMapping
-    public ItemDto addItem(@RequestHeader("X-Sharer-User-Id") Long id,
+    public ItemDto addItem(UserPrincipal user,
                            @Valid @RequestBody ItemDto itemDto) {
-        return itemService.addNewItem(id, itemDto);
+        return itemService.addNewItem(user, itemDto);
     }
 
     @DeleteMapping("/{itemId}")
-    public void deleteItem(@RequestHeader("X-Sharer-User-Id") long userId,
+    public void deleteItem(UserPrincipal user,
                            @PathVariable long itemId) {
-        itemService.deleteItem(userId, itemId);
+        itemService.deleteItem(user, itemId);
     }
 
     @PatchMapping("/{id}")
     public ItemDto updateItem(@RequestBody ItemDto itemDto,
-                              @RequestHeader("X-Sharer-User-Id") Long userId,
+                              UserPrincipal user,
                               @PathVariable Long id) {
-        return itemService.updateItem(itemDto, userId, id);
+        return itemService.updateItem(itemDto, user, id);
     }
 
+    /**
+     * Общее число найденных вещей не возвращается: клиенту достаточно признака следующей страницы в заголовке.
+     */
     @GetMapping("/search")
-    public List<Item> searchItems(@RequestParam String text, Pageable pageable) {
-        return itemService.searchItem(text, pageable);
+    public ResponseEntity<List<ItemDto>> searchItems(@RequestParam String text, Pageable pageable) {
+        final Slice<ItemDto> items = itemService.searchItem(text, pageable);
+        return ResponseEntity.ok()
+                .header(HAS_NEXT_HEADER, String.valueOf(items.hasNext()))
+                .body(items.getContent());
     }
 
     @PostMapping("/{id}/comment")
     public CommentWithInfoDto addComment(@Valid @RequestBody CommentDto commentDto,
-                                         @RequestHeader("X-Sharer-User-Id") Long userId,
+                                         UserPrincipal user,
                                          @PathVariable Long id) {
-        return itemService.addComment(commentDto, userId, id);
+        return itemService.addComment(commentDto, user, id);
     }
 }
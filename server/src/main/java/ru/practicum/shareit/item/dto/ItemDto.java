@@ -21,4 +21,11 @@ public class ItemDto {
     private BookingDto lastBooking;
     private BookingDto nextBooking;
     private Set<CommentWithInfoDto> comments;
+
+    /**
+     * Конструктор для JPQL-выражения SELECT new в поиске: бронирования и комментарии в ответ не входят.
+     */
+    public ItemDto(Long id, String name, String description, Boolean available, Long requestId) {
+        this(id, name, description, available, requestId, null, null, null);
+    }
 }
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.dto;
+
+/**
+ * Строка нативного полнотекстового поиска: только колонки, которые попадают в ответ.
+ * Имена методов совпадают с псевдонимами колонок в запросе.
+ */
+public interface ItemSearchRow {
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+
+    Boolean getAvailable();
+
+    Long getRequestId();
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.*;
+
+/**
+ * Вещь в ответе о бронировании: только то, что нужно для отображения ссылки на вещь.
+ */
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemShortDto {
+    private Long id;
+    private String name;
+}
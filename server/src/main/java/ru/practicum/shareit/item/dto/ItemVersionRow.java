@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Всё, от чего зависит ответ GET /items/{id} не владельцу: версия вещи, которая растёт и при каждом
+ * новом комментарии, и сумма версий авторов комментариев. При неизменном наборе комментариев сумма
+ * только растёт, поэтому переименование любого автора меняет ETag.
+ */
+@Getter
+@AllArgsConstructor
+public class ItemVersionRow {
+    private final Long ownerId;
+    private final Long version;
+    private final Long authorsVersion;
+}
@@ -2,7 +2,10 @@ package ru.practicum.shareit.item.mapper;
 
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dto.CommentWithInfoDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSearchRow;
+import ru.practicum.shareit.item.dto.ItemShortDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.model.ItemRequest;
@@ -44,6 +47,24 @@ public class ItemMapper {
                 .build();
     }
 
+    /**
+     * Копия, которую можно менять, не затрагивая исходный объект: комментарии тоже копируются.
+     */
+    public static ItemDto copyOf(@NotNull ItemDto itemDto) {
+        return ItemDto.builder()
+                .id(itemDto.getId())
+                .name(itemDto.getName())
+                .description(itemDto.getDescription())
+                .available(itemDto.getAvailable())
+                .requestId(itemDto.getRequestId())
+                .lastBooking(itemDto.getLastBooking())
+                .nextBooking(itemDto.getNextBooking())
+                .comments(itemDto.getComments() == null ? null : itemDto.getComments().stream()
+                        .map(it -> new CommentWithInfoDto(it.getId(), it.getText(), it.getAuthorName(), it.getCreated()))
+                        .collect(toSet()))
+                .build();
+    }
+
     public static ItemDto mapToItemDto(Item item) {
         return ItemDto.builder()
                 .id(item.getId())
@@ -51,6 +72,16 @@ public class ItemMapper {
                 .build();
     }
 
+    public static ItemDto mapToItemDto(ItemSearchRow row) {
+        return new ItemDto(
+                row.getId(),
+                row.getName(),
+                row.getDescription(),
+                row.getAvailable(),
+                row.getRequestId()
+        );
+    }
+
     public static Item mapToItem(@NotNull ItemDto itemDto, @NotNull User owner) {
         return Item.builder()
                 .id(itemDto.getId())
@@ -81,4 +112,11 @@ public class ItemMapper {
                 .request(request)
                 .build();
     }
+
+    public static ItemShortDto toItemShortDto(Item item) {
+        return new ItemShortDto(
+                item.getId(),
+                item.getName()
+        );
+    }
 }
@@ -1,25 +1,61 @@
 package ru.practicum.shareit.item.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.VersionedRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSearchRow;
+import ru.practicum.shareit.item.dto.ItemVersionRow;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.model.ItemRequest;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
-public interface ItemRepository extends JpaRepository<Item, Long> {
+public interface ItemRepository extends JpaRepository<Item, Long>, VersionedRepository<Item> {
 
     List<Item> findAllByOwnerId(long userId, Pageable pageable);
 
     Set<Item> findByRequestId(Long requestId);
 
-    @Query("SELECT i FROM Item i WHERE UPPER(i.name) LIKE UPPER(CONCAT('%', ?1, '%')) " +
-            " OR UPPER(i.description) LIKE UPPER(CONCAT('%', ?1, '%')) AND i.available = true")
-    Page<Item> search(String text, Pageable pageable);
+    /**
+     * Данные для ETag вещи одним запросом, без загрузки сущностей.
+     */
+    @Query("SELECT new ru.practicum.shareit.item.dto.ItemVersionRow(i.owner.id, i.version, " +
+            "(SELECT COALESCE(SUM(a.version), 0L) FROM Comment c JOIN c.author a WHERE c.item.id = i.id)) " +
+            "FROM Item i WHERE i.id = :id")
+    Optional<ItemVersionRow> findVersionById(@Param("id") Long id);
+
+    /**
+     * Поиск доступных вещей по подстроке. Условие на доступность совпадает с частичным индексом
+     * idx_items_available_trgm, поэтому недоступные вещи не читаются.
+     * Читаются только колонки ответа, без загрузки сущностей. Slice запрашивает size + 1 строку
+     * вместо отдельного COUNT с тем же неиндексируемым LIKE.
+     */
+    @Query("SELECT new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.available, r.id) " +
+            "FROM Item i LEFT JOIN i.request r WHERE i.available = true " +
+            "AND (UPPER(i.name) LIKE UPPER(CONCAT('%', ?1, '%')) OR UPPER(i.description) LIKE UPPER(CONCAT('%', ?1, '%')))")
+    Slice<ItemDto> search(String text, Pageable pageable);
+
+    /**
+     * Полнотекстовый поиск PostgreSQL. Выражение to_tsvector совпадает с индексом idx_items_search.
+     * @param query выражение to_tsquery.
+     */
+    @Query(value = "SELECT id, name, description, is_available AS available, request_id AS \"requestId\" " +
+            "FROM items WHERE is_available = true " +
+            "AND to_tsvector('russian', name || ' ' || description) @@ to_tsquery('russian', :query) " +
+            "ORDER BY ts_rank(to_tsvector('russian', name || ' ' || description), to_tsquery('russian', :query)) DESC, id",
+            nativeQuery = true)
+    Slice<ItemSearchRow> fullTextSearch(@Param("query") String query, Pageable pageable);
 
     Set<Item> findItemByRequestIn(List<ItemRequest> requests);
 
+    @Query("SELECT new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.available, r.id) " +
+            "FROM Item i LEFT JOIN i.request r WHERE i.id > :id")
+    Slice<ItemDto> findAllByIdGreaterThan(@Param("id") long id, Pageable pageable);
+
 }
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+
+/**
+ * Движок поиска доступных вещей по тексту. Реализация выбирается свойством shareit.search.engine.
+ */
+public interface ItemSearchEngine {
+
+    /**
+     * Поиск доступных вещей по названию и описанию. Общее число найденных вещей не считается.
+     * @param text текст запроса, не пустой.
+     * @param pageable параметры страницы.
+     * @return Slice<ItemDto>.
+     */
+    Slice<ItemDto> search(String text, Pageable pageable);
+
+    /**
+     * Добавить или обновить вещь в индексе. Вызывается после фиксации транзакции, создавшей или изменившей вещь.
+     * Движки, которые ищут прямо в БД, ничего не делают.
+     * @param item вещь.
+     */
+    default void index(Item item) {
+    }
+
+    /**
+     * Удалить вещь из индекса. Вызывается после фиксации транзакции, удалившей вещь.
+     * @param itemId Item id.
+     */
+    default void remove(long itemId) {
+    }
+}
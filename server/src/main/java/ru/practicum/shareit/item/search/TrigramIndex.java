@@ -0,0 +1,233 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс триграмм для поиска подстроки без учёта регистра.
+ * Триграмма упаковывается в long, списки вхождений хранят отсортированные id документов в long[].
+ * Кандидаты, найденные пересечением списков, проверяются по исходному тексту.
+ * Вместе с текстом документа хранится его значение, которое возвращает get.
+ * Словари триграмм и документов - LongObjectMap, ключи в них тоже не упаковываются в Long.
+ */
+public class TrigramIndex<T> {
+    private static final long[] EMPTY = new long[0];
+    private final LongObjectMap<PostingList> postings = new LongObjectMap<>();
+    private final LongObjectMap<Document<T>> documents = new LongObjectMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Добавить или заменить документ.
+     * @param id id документа.
+     * @param value значение документа.
+     * @param fields поля документа, совпадение ищется в каждом поле отдельно.
+     */
+    public void put(long id, T value, String... fields) {
+        final String[] normalized = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            normalized[i] = fields[i] == null ? "" : normalize(fields[i]);
+        }
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+            documents.put(id, new Document<>(normalized, value));
+            for (String field : normalized) {
+                for (int i = 0; i + 3 <= field.length(); i++) {
+                    final long key = trigram(field, i);
+                    PostingList list = postings.get(key);
+                    if (list == null) {
+                        list = new PostingList();
+                        postings.put(key, list);
+                    }
+                    list.add(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Удалить документ, если он есть в индексе.
+     * @param id id документа.
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param id id документа.
+     * @return значение документа или null, если документа нет в индексе.
+     */
+    public T get(long id) {
+        lock.readLock().lock();
+        try {
+            final Document<T> document = documents.get(id);
+            return document == null ? null : document.value;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Найти документы, в одном из полей которых встречается подстрока.
+     * @param text подстрока.
+     * @return id найденных документов по возрастанию.
+     */
+    public long[] search(String text) {
+        final String query = normalize(text);
+        lock.readLock().lock();
+        try {
+            final long[] candidates = query.length() < 3 ? documents.sortedKeys() : candidates(query);
+            int found = 0;
+            for (long id : candidates) {
+                if (matches(documents.get(id).fields, query)) {
+                    candidates[found++] = id;
+                }
+            }
+            return Arrays.copyOf(candidates, found);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long[] candidates(String query) {
+        final List<PostingList> lists = new ArrayList<>();
+        for (int i = 0; i + 3 <= query.length(); i++) {
+            final PostingList list = postings.get(trigram(query, i));
+            if (list == null) {
+                return EMPTY;
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        long[] result = Arrays.copyOf(lists.get(0).ids, lists.get(0).size);
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = lists.get(i).retain(result);
+        }
+        return result;
+    }
+
+    private void removeDocument(long id) {
+        final Document<T> document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (String field : document.fields) {
+            for (int i = 0; i + 3 <= field.length(); i++) {
+                final long key = trigram(field, i);
+                final PostingList list = postings.get(key);
+                if (list != null && list.remove(id) && list.size == 0) {
+                    postings.remove(key);
+                }
+            }
+        }
+    }
+
+    private static boolean matches(String[] fields, String query) {
+        for (String field : fields) {
+            if (field.contains(query)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    private static long trigram(String text, int from) {
+        return ((long) text.charAt(from) << 32) | ((long) text.charAt(from + 1) << 16) | text.charAt(from + 2);
+    }
+
+    private static final class Document<T> {
+        private final String[] fields;
+        private final T value;
+
+        Document(String[] fields, T value) {
+            this.fields = fields;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Отсортированный список id без упаковки в Long.
+     */
+    private static final class PostingList {
+        private long[] ids = new long[2];
+        private int size;
+
+        void add(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            final int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            return true;
+        }
+
+        long[] retain(long[] sorted) {
+            final long[] result = new long[Math.min(sorted.length, size)];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < sorted.length && j < size) {
+                if (sorted[i] < ids[j]) {
+                    i++;
+                } else if (sorted[i] > ids[j]) {
+                    j++;
+                } else {
+                    result[count++] = sorted[i];
+                    i++;
+                    j++;
+                }
+            }
+            return count == result.length ? result : Arrays.copyOf(result, count);
+        }
+    }
+}
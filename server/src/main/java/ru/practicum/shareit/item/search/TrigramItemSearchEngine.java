@@ -0,0 +1,88 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Поиск подстроки по триграммному индексу в памяти, без обращений к БД.
+ * Индекс строится из БД при старте и обновляется сервисом вещей после фиксации изменений.
+ * В индексе хранятся только доступные вещи, вместе с готовыми ItemDto для ответа.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "trigram")
+public class TrigramItemSearchEngine implements ItemSearchEngine {
+    private static final int BATCH_SIZE = 1000;
+    private final ItemRepository itemRepository;
+    private final TrigramIndex<ItemDto> index = new TrigramIndex<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        index.clear();
+        final Pageable pageable = PageRequest.of(0, BATCH_SIZE, Sort.by("id"));
+        Slice<ItemDto> batch = itemRepository.findAllByIdGreaterThan(0L, pageable);
+        batch.forEach(this::index);
+        while (batch.hasNext()) {
+            final List<ItemDto> content = batch.getContent();
+            batch = itemRepository.findAllByIdGreaterThan(content.get(content.size() - 1).getId(), pageable);
+            batch.forEach(this::index);
+        }
+        log.info("Триграммный индекс построен, вещей: {}", index.size());
+    }
+
+    @Override
+    public Slice<ItemDto> search(String text, Pageable pageable) {
+        final long[] ids = index.search(text);
+        if (pageable.getOffset() >= ids.length) {
+            return new SliceImpl<>(Collections.emptyList(), pageable, false);
+        }
+        final int to = (int) Math.min(ids.length, pageable.getOffset() + pageable.getPageSize());
+        final List<ItemDto> content = new ArrayList<>(to - (int) pageable.getOffset());
+        for (int i = (int) pageable.getOffset(); i < to; i++) {
+            final ItemDto item = index.get(ids[i]);
+            if (item != null) {
+                content.add(item);
+            }
+        }
+        return new SliceImpl<>(content, pageable, to < ids.length);
+    }
+
+    /**
+     * id запроса читается у прокси без его загрузки.
+     */
+    @Override
+    public void index(Item item) {
+        index(new ItemDto(item.getId(), item.getName(), item.getDescription(), item.getAvailable(),
+                item.getRequest() == null ? null : item.getRequest().getId()));
+    }
+
+    @Override
+    public void remove(long itemId) {
+        index.remove(itemId);
+    }
+
+    private void index(ItemDto item) {
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            remove(item.getId());
+            return;
+        }
+        index.put(item.getId(), item, item.getName(), item.getDescription());
+    }
+}
@@ -1,10 +1,11 @@
 package ru.practicum.shareit.item.service;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CommentWithInfoDto;
 import ru.practicum.shareit.item.dto.ItemDto;
-import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.UserPrincipal;
 
 import java.util.List;
 
@@ -12,56 +13,64 @@ public interface ItemService {
 
     /**
      * Добавление новой вещи.
+     * @param user User, владелец(owner) вещи.
      * @param itemDto Entity dto.
-     * @param id User id, владелец(owner) вещи.
      * @return ItemDto.
      */
-    ItemDto addNewItem(Long id, ItemDto itemDto);
+    ItemDto addNewItem(UserPrincipal user, ItemDto itemDto);
 
     /**
      * Найти все вещи пользователя по id.
-     * @param userId User id, владелец(owner) вещи.
+     * @param user User, владелец(owner) вещи.
      * @return List<ItemDto>.
      */
-    List<ItemDto> getItems(long userId, int page, int size);
+    List<ItemDto> getItems(UserPrincipal user, int page, int size);
 
     /**
      * Удалить вещь по id. Только владелец(owner) может сделать это.
-     * @param userId User id, владелец(owner) вещи.
+     * @param user User, владелец(owner) вещи.
      * @param itemId Item id.
      */
-    void deleteItem(long userId, long itemId);
+    void deleteItem(UserPrincipal user, long itemId);
 
     /**
      * Обновить вещь по id. Только владелец(owner) может сделать это.
      * @param itemDto Entity dto.
-     * @param userId User id, владелец(owner) вещи.
+     * @param user User, владелец(owner) вещи.
      * @param id Item id.
      * @return ItemDto.
      */
-    ItemDto updateItem(ItemDto itemDto, Long userId, Long id);
+    ItemDto updateItem(ItemDto itemDto, UserPrincipal user, Long id);
 
     /**
      * Найти вещь по id.
-     * @param userId User id, владелец(owner) вещи.
+     * @param user User, владелец(owner) вещи.
      * @param itemId Item id.
      * @return ItemDto.
      */
-    ItemDto getItemById(Long userId, Long itemId);
+    ItemDto getItemById(UserPrincipal user, Long itemId);
+
+    /**
+     * ETag ответа getItemById. Владельцу не выдаётся: lastBooking и nextBooking зависят от текущего времени.
+     * @param user User.
+     * @param itemId Item id.
+     * @return ETag или null, если вещь не найдена или пользователь - её владелец.
+     */
+    String getItemETag(UserPrincipal user, Long itemId);
 
     /**
      * Поиск вещей по ключевому слову.
      * @param text ключевое слово.
-     * @return List<Item>.
+     * @return Slice<ItemDto>, hasNext - есть ли следующая страница.
      */
-    List<Item> searchItem(String text, Pageable pageable);
+    Slice<ItemDto> searchItem(String text, Pageable pageable);
 
     /**
      * Добавить комментарий после бронирования.
      * @param commentDto Entity dto.
-     * @param userId User id.
+     * @param user User, автор комментария.
      * @param id Comment id.
      * @return CommentWithInfoDto.
      */
-    CommentWithInfoDto addComment(CommentDto commentDto, Long userId, Long id);
+    CommentWithInfoDto addComment(CommentDto commentDto, UserPrincipal user, Long id);
 }
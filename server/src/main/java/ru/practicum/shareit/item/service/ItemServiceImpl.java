@@ -1,17 +1,19 @@
 package ru.practicum.shareit.item.service;
 
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.AfterCommit;
+import ru.practicum.shareit.SingleFlight;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.*;
 import ru.practicum.shareit.exception.SecurityException;
@@ -24,8 +26,10 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.UserPrincipal;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
@@ -34,7 +38,9 @@ import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -45,25 +51,30 @@ public class ItemServiceImpl implements ItemService {
     private final ItemRepository itemRepository;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
+    private final ItemSearchEngine itemSearchEngine;
+    /**
+     * Одновременные запросы одной вещи объединяются: вещь с комментариями загружается один раз,
+     * каждый вызвавший получает свою копию, а владельцу в неё добавляются lastBooking/nextBooking.
+     */
+    private final SingleFlight<Long, ItemView> itemViews = new SingleFlight<>();
 
     @Autowired
     public ItemServiceImpl(ItemRepository itemRepository,
                            UserRepository userRepository,
                            BookingRepository bookingRepository,
                            CommentRepository commentRepository,
-                           ItemRequestRepository itemRequestRepository) {
+                           ItemRequestRepository itemRequestRepository,
+                           ItemSearchEngine itemSearchEngine) {
         this.itemRepository = itemRepository;
         this.userRepository = userRepository;
         this.bookingRepository = bookingRepository;
         this.commentRepository = commentRepository;
         this.itemRequestRepository = itemRequestRepository;
+        this.itemSearchEngine = itemSearchEngine;
     }
 
     @Override
-    public List<ItemDto> getItems(long userId, int page, int size) {
-        final User user = userRepository.findById(userId).orElseThrow(
-                () -> new UserNotFoundException(String.format("Пользователь с id=%d не найден!", userId))
-        );
+    public List<ItemDto> getItems(UserPrincipal user, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         Comparator<ItemDto> comparator = (o1, o2) -> {
             final BookingDto lb1 = o1.getLastBooking();
@@ -80,36 +91,39 @@ public class ItemServiceImpl implements ItemService {
             }
             return lb1.getStart().compareTo(lb2.getStart());
         };
-        return itemRepository.findAllByOwnerId(user.getId(), pageable).stream()
-                .map(it -> ItemMapper.mapToItemDto(it, commentRepository.findAllByItemId(it.getId())))
-                .peek(it -> {
-                    final List<Booking> bookings = bookingRepository.findAllByItemId(it.getId());
-                    final Booking lastBooking = findBookingByStatePastOrFuture(BookingState.PAST, bookings);
-                    final Booking nextBooking = findBookingByStatePastOrFuture(BookingState.FUTURE, bookings);
-                    if (lastBooking != null && nextBooking != null) {
-                        it.setLastBooking(BookingMapper.mapToBookingDtoWithIds(lastBooking));
-                        it.setNextBooking(BookingMapper.mapToBookingDtoWithIds(nextBooking));
-                    }
-                })
+        final List<Item> items = itemRepository.findAllByOwnerId(user.getId(), pageable);
+        if (items.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final Set<Long> itemIds = items.stream()
+                .map(Item::getId)
+                .collect(Collectors.toSet());
+        final Map<Long, Set<Comment>> commentsByItem = commentRepository.findAllByItemIdIn(itemIds).stream()
+                .collect(Collectors.groupingBy(it -> it.getItem().getId(), Collectors.toSet()));
+        final List<ItemDto> itemDtos = items.stream()
+                .map(it -> ItemMapper.mapToItemDto(it, commentsByItem.getOrDefault(it.getId(), Collections.emptySet())))
+                .collect(Collectors.toList());
+        setLastAndNextBookings(itemDtos);
+        return itemDtos.stream()
                 .sorted(comparator)
                 .collect(Collectors.toList());
     }
 
     @Transactional
     @Override
-    public ItemDto addNewItem(Long id, ItemDto itemDto) {
+    public ItemDto addNewItem(UserPrincipal user, ItemDto itemDto) {
         if (itemValidation(itemDto)) {
-            User user = userRepository.findById(id).orElseThrow(
-                    () -> new EntityNotFoundException(String.format("Пользователь с id=%d не найден!", id))
-            );
+            final User owner = userRepository.getReferenceById(user.getId());
             ItemRequest request = null;
             if (itemDto.getRequestId() != null) {
                 request =  itemRequestRepository.findById(itemDto.getRequestId()).orElseThrow(
                         () -> new EntityNotFoundException(String.format("Item request with id=%d not found!", itemDto.getRequestId()))
                 );
+                itemRequestRepository.incrementVersion(request);
             }
-            Item item = request == null ? ItemMapper.mapToItem(itemDto, user) : ItemMapper.mapToItem(itemDto, user, request);
+            Item item = request == null ? ItemMapper.mapToItem(itemDto, owner) : ItemMapper.mapToItem(itemDto, owner, request);
             Item itemToSave = itemRepository.save(item);
+            AfterCommit.run(() -> itemSearchEngine.index(itemToSave));
             Set<Comment> comments = commentRepository.findAllByItemId(item.getId());
             return item.getRequest() == null ? ItemMapper.mapToItemDto(itemToSave, comments) : ItemMapper.mapToItemDto(itemToSave, itemToSave.getRequest());
         } else {
@@ -119,26 +133,24 @@ public class ItemServiceImpl implements ItemService {
 
     @Transactional
     @Override
-    public void deleteItem(long userId, long itemId) {
-        userRepository.findById(userId).orElseThrow(
-                () -> new UserNotFoundException(String.format("Пользователь с id=%d не найден!", userId))
-        );
+    public void deleteItem(UserPrincipal user, long itemId) {
         final Item item = itemRepository.findById(itemId).orElseThrow(
                 () -> new ItemNotFoundException(String.format("Вещь с id=%d не найдена!", itemId))
         );
+        if (item.getRequest() != null) {
+            itemRequestRepository.incrementVersion(item.getRequest());
+        }
         itemRepository.deleteById(item.getId());
+        AfterCommit.run(() -> itemSearchEngine.remove(item.getId()));
     }
 
     @Transactional
     @Override
-    public ItemDto updateItem(ItemDto itemDto, Long userId, Long id) {
-        User user = userRepository.findById(userId).orElseThrow(
-                () -> new UserNotFoundException(String.format("Пользователь с id=%d не найден!", userId)));
-
+    public ItemDto updateItem(ItemDto itemDto, UserPrincipal user, Long id) {
         Item itemForUpdate = itemRepository.findById(id).orElseThrow(
                 () -> new ItemNotFoundException(String.format("Вещь с id=%d не найдена!", id)));
 
-        if (user.getId().equals(itemForUpdate.getOwner().getId())) {
+        if (itemForUpdate.getOwner().getId().equals(user.getId())) {
             if (itemDto.getName() != null) {
                 itemForUpdate.setName(itemDto.getName());
             }
@@ -150,47 +162,53 @@ public class ItemServiceImpl implements ItemService {
             }
 
         } else {
-            throw new SecurityException(String.format("У пользователя c id=%d отсутствуют права на изменение вещи!", userId));
+            throw new SecurityException(String.format("У пользователя c id=%d отсутствуют права на изменение вещи!", user.getId()));
+        }
+        if (itemForUpdate.getRequest() != null) {
+            itemRequestRepository.incrementVersion(itemForUpdate.getRequest());
         }
         final Set<Comment> comments = commentRepository.findAllByItemId(itemForUpdate.getId());
         itemRepository.save(itemForUpdate);
+        AfterCommit.run(() -> itemSearchEngine.index(itemForUpdate));
         return ItemMapper.mapToItemDto(itemForUpdate, comments);
     }
 
     @Override
-    public ItemDto getItemById(Long userId, Long itemId) {
+    public ItemDto getItemById(UserPrincipal user, Long itemId) {
+        final ItemView view = itemViews.execute(itemId, () -> {
+            final Item item = itemRepository.findById(itemId).orElseThrow(
+                    () -> new ItemNotFoundException(String.format("Вещь с id=%d не найдена!", itemId)));
+            final Set<Comment> comments = commentRepository.findAllByItemId(item.getId());
+            return new ItemView(item.getOwner().getId(), ItemMapper.mapToItemDto(item, comments));
+        });
 
-        User user = userRepository.findById(userId).orElseThrow(
-                () -> new UserNotFoundException(String.format("Пользователь с id=%d не найден!", userId)));
-
-        Item item = itemRepository.findById(itemId).orElseThrow(
-                () -> new ItemNotFoundException(String.format("Вещь с id=%d не найдена!", itemId)));
+        final ItemDto itemDto = ItemMapper.copyOf(view.getItem());
+        if (view.getOwnerId() == user.getId()) {
+            setLastAndNextBookings(List.of(itemDto));
+        }
+        return itemDto;
+    }
 
-        final List<Booking> bookings = bookingRepository.findAllByItemOwnerId(user.getId(), Sort.by(Sort.Direction.DESC, "start"));
-        final Booking lastBooking = findBookingByStatePastOrFuture(BookingState.PAST, bookings);
-        final Booking nextBooking = findBookingByStatePastOrFuture(BookingState.FUTURE, bookings);
-        final Set<Comment> comments = commentRepository.findAllByItemId(item.getId());
-        return lastBooking == null || nextBooking == null ?
-                ItemMapper.mapToItemDto(item, comments) :
-                ItemMapper.mapToItemDto(item, lastBooking, nextBooking, comments);
+    @Override
+    public String getItemETag(UserPrincipal user, Long itemId) {
+        return itemRepository.findVersionById(itemId)
+                .filter(it -> !it.getOwnerId().equals(user.getId()))
+                .map(it -> String.format("item-%d-%d-%d", itemId, it.getVersion(), it.getAuthorsVersion()))
+                .orElse(null);
     }
 
     @Override
-    public List<Item> searchItem(String text, Pageable pageable) {
+    public Slice<ItemDto> searchItem(String text, Pageable pageable) {
         if (text.isEmpty()) {
-            return Collections.emptyList();
+            return new SliceImpl<>(Collections.emptyList(), pageable, false);
         }
 
-        Page<Item> itemPage = itemRepository.search(text, pageable);
-        return itemPage.getContent();
+        return itemSearchEngine.search(text, pageable);
     }
 
     @Override
     @Transactional
-    public CommentWithInfoDto addComment(CommentDto commentDto, Long userId, Long id) {
-        final User user = userRepository.findById(userId).orElseThrow(
-                () -> new EntityNotFoundException(String.format("Пользователь с id=%d не найден!", userId))
-        );
+    public CommentWithInfoDto addComment(CommentDto commentDto, UserPrincipal user, Long id) {
         final Item item = itemRepository.findById(id).orElseThrow(
                 () -> new EntityNotFoundException(String.format("Вещь с id=%d не найдена!", id))
         );
@@ -201,32 +219,39 @@ public class ItemServiceImpl implements ItemService {
                 throw new BookingStatusException("Дата бронирования еще не наступила");
             }
         } else {
-            throw new ValidationException(String.format("Пользователь userId=%d не брал вещь в аренду!", userId));
+            throw new ValidationException(String.format("Пользователь userId=%d не брал вещь в аренду!", user.getId()));
         }
 
-        final Comment comment = CommentMapper.mapToComment(commentDto, item, user);
+        final Comment comment = CommentMapper.mapToComment(commentDto, item,
+                userRepository.getReferenceById(user.getId()));
         final Comment commentToAdd = commentRepository.save(comment);
+        itemRepository.incrementVersion(item);
         return CommentMapper.mapToCommentInfoDto(commentToAdd);
     }
 
-    private Booking findBookingByStatePastOrFuture(BookingState state, List<Booking> bookings) {
+    private void setLastAndNextBookings(List<ItemDto> items) {
         final LocalDateTime currentTime = LocalDateTime.now();
+        final Map<Long, ItemDto> itemsById = items.stream()
+                .collect(Collectors.toMap(ItemDto::getId, Function.identity()));
 
-        switch (state) {
-            case PAST: {
-                return bookings.stream()
-                        .filter(it -> it.getStart().isBefore(currentTime))
-                        .findFirst().orElse(null);
-            }
-            case FUTURE: {
-                return bookings.stream()
-                        .filter(it -> it.getStart().isAfter(currentTime))
-                        .findFirst().orElse(null);
-            }
-            default: {
-                throw new BookingStateExistsException("Unknown state: UNSUPPORTED_STATUS");
-            }
-        }
+        bookingRepository.findLastAndNextApprovedBookings(itemsById.keySet(), currentTime)
+                .forEach(booking -> {
+                    final ItemDto itemDto = itemsById.get(booking.getItem().getId());
+                    if (booking.getStart().isBefore(currentTime)) {
+                        itemDto.setLastBooking(BookingMapper.mapToBookingDtoWithIds(booking));
+                    } else {
+                        itemDto.setNextBooking(BookingMapper.mapToBookingDtoWithIds(booking));
+                    }
+                });
+    }
+
+    /**
+     * Общий для всех ожидавших результат загрузки вещи. Наружу отдаются только копии item.
+     */
+    @Value
+    private static class ItemView {
+        long ownerId;
+        ItemDto item;
     }
 
     private boolean itemValidation(ItemDto itemDto) {
@@ -1,9 +1,13 @@
 package ru.practicum.shareit.request.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.request.KeysetCursor;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.service.RequestService;
+import ru.practicum.shareit.user.UserPrincipal;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
@@ -22,31 +26,44 @@ public class ItemRequestController {
     }
 
     @PostMapping
-    public ItemRequestDto addNewRequest(@RequestHeader("X-Sharer-User-Id") Long userId,
+    public ItemRequestDto addNewRequest(UserPrincipal user,
                                         @Valid @RequestBody ItemRequestDto itemRequestDto) {
-        return requestService.addNewRequest(userId, itemRequestDto);
+        return requestService.addNewRequest(user, itemRequestDto);
     }
 
     @GetMapping
-    public List<ItemRequestDto> getRequestsMadeByOwner(@RequestHeader("X-Sharer-User-Id") Long userId) {
-        return requestService.getRequestsMadeByOwner(userId);
+    public List<ItemRequestDto> getRequestsMadeByOwner(UserPrincipal user) {
+        return requestService.getRequestsMadeByOwner(user);
     }
 
     @GetMapping("/all")
-    public List<ItemRequestDto> getRequestsMadeByOthers(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                        @RequestParam(name = "from", defaultValue = "0") @PositiveOrZero Integer from,
-                                                        @RequestParam(name = "size", defaultValue = "10") @Positive Integer size) {
-        return requestService.getRequestsMadeByOthers(userId, from, size);
+    public ResponseEntity<List<ItemRequestDto>> getRequestsMadeByOthers(UserPrincipal user,
+                                                                        @RequestParam(name = "from", defaultValue = "0") @PositiveOrZero Integer from,
+                                                                        @RequestParam(name = "size", defaultValue = "10") @Positive Integer size,
+                                                                        @RequestParam(name = "after", required = false) String after) {
+        final List<ItemRequestDto> requests = after == null ?
+                requestService.getRequestsMadeByOthers(user, from, size) :
+                requestService.getRequestsMadeByOthersAfter(user, after, size);
+        if (requests.size() < size) {
+            return ResponseEntity.ok(requests);
+        }
+        final ItemRequestDto last = requests.get(requests.size() - 1);
+        return ResponseEntity.ok()
+                .header(KeysetCursor.NEXT_CURSOR_HEADER, new KeysetCursor(last.getCreated(), last.getId()).encode())
+                .body(requests);
     }
 
     @GetMapping("/{requestId}")
-    public ItemRequestDto getRequestById(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long requestId) {
-        return requestService.getRequestById(userId, requestId);
+    public ItemRequestDto getRequestById(UserPrincipal user, @PathVariable Long requestId, WebRequest request) {
+        if (request.checkNotModified(requestService.getRequestETag(requestId))) {
+            return null;
+        }
+        return requestService.getRequestById(user, requestId);
     }
 
     @DeleteMapping("/{id}")
-    public void deleteById(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long id) {
-        requestService.deleteById(userId, id);
+    public void deleteById(UserPrincipal user, @PathVariable Long id) {
+        requestService.deleteById(user, id);
     }
 
 }
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.request.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка выборки "запрос + вещь-ответ" из одного LEFT JOIN. Для запроса без ответов поля вещи равны null.
+ */
+@Getter
+@AllArgsConstructor
+public class ItemRequestItemRow {
+    private final Long id;
+    private final String description;
+    private final LocalDateTime created;
+    private final Long itemId;
+    private final String itemName;
+    private final String itemDescription;
+    private final Boolean itemAvailable;
+}
@@ -2,15 +2,23 @@ package ru.practicum.shareit.request.mapper;
 
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestItemRow;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.toSet;
 
@@ -35,6 +43,31 @@ public class ItemRequestMapper {
                 .build();
     }
 
+    /**
+     * Собирает запросы из строк JOIN с вещами, сохраняя порядок запросов.
+     */
+    public static List<ItemRequestDto> mapToItemRequestDtos(Stream<ItemRequestItemRow> rows) {
+        final Map<Long, ItemRequestDto> requests = new LinkedHashMap<>();
+        rows.forEach(row -> {
+            final ItemRequestDto request = requests.computeIfAbsent(row.getId(), id -> ItemRequestDto.builder()
+                    .id(row.getId())
+                    .description(row.getDescription())
+                    .created(row.getCreated())
+                    .items(new HashSet<>())
+                    .build());
+            if (row.getItemId() != null) {
+                request.getItems().add(ItemDto.builder()
+                        .id(row.getItemId())
+                        .name(row.getItemName())
+                        .description(row.getItemDescription())
+                        .available(row.getItemAvailable())
+                        .requestId(row.getId())
+                        .build());
+            }
+        });
+        return new ArrayList<>(requests.values());
+    }
+
     public static ItemRequest mapToItemRequest(ItemRequestDto requestDto, User requestor) {
         return new ItemRequest(
                 requestDto.getId(),
@@ -2,15 +2,51 @@ package ru.practicum.shareit.request.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.VersionedRepository;
+import ru.practicum.shareit.request.dto.ItemRequestItemRow;
 import ru.practicum.shareit.request.model.ItemRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 
-public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long>, VersionedRepository<ItemRequest> {
 
     List<ItemRequest> findAllByRequestorIdNot(Long userId, Pageable pageable);
 
+    /**
+     * Запросы других пользователей, идущие после (created, id) в порядке убывания. Использует idx_requests_created.
+     */
+    @Query("SELECT r FROM ItemRequest r WHERE r.requestor.id <> :userId " +
+            "AND (r.created < :created OR (r.created = :created AND r.id < :id)) " +
+            "ORDER BY r.created DESC, r.id DESC")
+    List<ItemRequest> findAllByRequestorIdNotAfter(@Param("userId") Long userId,
+                                                   @Param("created") LocalDateTime created,
+                                                   @Param("id") Long id,
+                                                   Pageable pageable);
+
     List<ItemRequest> findAllByRequestorId(Long userId);
 
+    /**
+     * Запросы пользователя вместе с вещами-ответами одним LEFT JOIN, без загрузки сущностей.
+     * Строки одного запроса идут подряд. Поток нужно читать внутри транзакции и закрывать.
+     */
+    @Query("SELECT new ru.practicum.shareit.request.dto.ItemRequestItemRow(r.id, r.description, r.created, " +
+            "i.id, i.name, i.description, i.available) " +
+            "FROM ItemRequest r LEFT JOIN Item i ON i.request.id = r.id " +
+            "WHERE r.requestor.id = :userId " +
+            "ORDER BY r.created DESC, r.id DESC")
+    Stream<ItemRequestItemRow> streamAllWithItemsByRequestorId(@Param("userId") Long userId);
+
+    /**
+     * Версия запроса для ETag без загрузки сущности. ItemService увеличивает её при добавлении,
+     * изменении и удалении вещи-ответа, поэтому версия покрывает и список вещей в ответе.
+     */
+    @Query("SELECT r.version FROM ItemRequest r WHERE r.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
 }
@@ -1,18 +1,23 @@
 package ru.practicum.shareit.request.service;
 
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.user.UserPrincipal;
 
 import java.util.List;
 
 public interface RequestService {
-    ItemRequestDto addNewRequest(Long userId, ItemRequestDto itemRequestDto);
+    ItemRequestDto addNewRequest(UserPrincipal user, ItemRequestDto itemRequestDto);
 
-    List<ItemRequestDto> getRequestsMadeByOwner(Long userId);
+    List<ItemRequestDto> getRequestsMadeByOwner(UserPrincipal user);
 
-    List<ItemRequestDto> getRequestsMadeByOthers(Long userId, Integer from, Integer size);
+    List<ItemRequestDto> getRequestsMadeByOthers(UserPrincipal user, Integer from, Integer size);
 
-    ItemRequestDto getRequestById(Long userId, Long requestId);
+    List<ItemRequestDto> getRequestsMadeByOthersAfter(UserPrincipal user, String after, Integer size);
 
-    void deleteById(Long userId, Long id);
+    ItemRequestDto getRequestById(UserPrincipal user, Long requestId);
+
+    String getRequestETag(Long requestId);
+
+    void deleteById(UserPrincipal user, Long id);
 
 }
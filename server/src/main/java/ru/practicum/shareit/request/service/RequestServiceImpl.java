@@ -2,25 +2,29 @@ package ru.practicum.shareit.request.service;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.ItemNotFoundException;
-import ru.practicum.shareit.exception.UserNotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.KeysetCursor;
 import ru.practicum.shareit.request.MyPageRequest;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestItemRow;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.UserPrincipal;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.*;
 import static org.springframework.data.domain.Sort.Direction.DESC;
@@ -46,56 +50,40 @@ public class RequestServiceImpl implements RequestService {
 
     @Transactional
     @Override
-    public ItemRequestDto addNewRequest(Long userId, ItemRequestDto itemRequestDto) {
-        User user = userRepository.findById(userId).orElseThrow(
-                () -> new UserNotFoundException(String.format("Пользователь с id=%d не найден!", userId))
-        );
-
+    public ItemRequestDto addNewRequest(UserPrincipal user, ItemRequestDto itemRequestDto) {
         if (itemRequestDto.getDescription() == null) {
             throw new ValidationException("Отсутствует описание в запросе");
         }
 
-        ItemRequest itemRequest = itemRequestRepository.save(ItemRequestMapper.mapToItemRequest(itemRequestDto, user));
+        ItemRequest itemRequest = itemRequestRepository.save(ItemRequestMapper.mapToItemRequest(itemRequestDto,
+                userRepository.getReferenceById(user.getId())));
         return ItemRequestMapper.mapToItemRequestDto(itemRequest);
 
     }
 
+    @Transactional(readOnly = true)
     @Override
-    public List<ItemRequestDto> getRequestsMadeByOwner(Long userId) {
-        final User user = userRepository.findById(userId).orElseThrow(
-                () -> new UserNotFoundException(String.format("User with id=%d not found!", userId))
-        );
-        final List<ItemRequest> requests = itemRequestRepository.findAllByRequestorId(user.getId());
-
-        Map<Long, Set<Item>> items = itemRepository.findItemByRequestIn(requests).stream()
-                .collect(groupingBy(item -> item.getRequest().getId(), toSet()));
-
-        return itemRequestRepository.findAllByRequestorId(user.getId()).stream()
-                .map(it -> ItemRequestMapper.mapToItemRequestDto(it, items.get(it.getId())))
-                .collect(toList());
+    public List<ItemRequestDto> getRequestsMadeByOwner(UserPrincipal user) {
+        try (Stream<ItemRequestItemRow> rows = itemRequestRepository.streamAllWithItemsByRequestorId(user.getId())) {
+            return ItemRequestMapper.mapToItemRequestDtos(rows);
+        }
     }
 
     @Override
-    public List<ItemRequestDto> getRequestsMadeByOthers(Long userId, Integer from, Integer size) {
-        final User user = userRepository.findById(userId).orElseThrow(
-                () -> new UserNotFoundException(String.format("User with id=%d not found!", userId))
-        );
-        final MyPageRequest pageRequest = new MyPageRequest(from, size, Sort.by(DESC, "created"));
-        final List<ItemRequest> requests = itemRequestRepository.findAllByRequestorIdNot(user.getId(), pageRequest);
-
-        Map<Long, Set<Item>> items = itemRepository.findItemByRequestIn(requests).stream()
-                .collect(groupingBy(item -> item.getRequest().getId(), toSet()));
+    public List<ItemRequestDto> getRequestsMadeByOthers(UserPrincipal user, Integer from, Integer size) {
+        final MyPageRequest pageRequest = new MyPageRequest(from, size, Sort.by(DESC, "created", "id"));
+        return mapWithItems(itemRequestRepository.findAllByRequestorIdNot(user.getId(), pageRequest));
+    }
 
-        return itemRequestRepository.findAllByRequestorIdNot(user.getId(), pageRequest).stream()
-                .map(it -> ItemRequestMapper.mapToItemRequestDto(it, items.get(it.getId())))
-                .collect(toList());
+    @Override
+    public List<ItemRequestDto> getRequestsMadeByOthersAfter(UserPrincipal user, String after, Integer size) {
+        final KeysetCursor cursor = KeysetCursor.decode(after);
+        return mapWithItems(itemRequestRepository.findAllByRequestorIdNotAfter(user.getId(), cursor.getTimestamp(),
+                cursor.getId(), PageRequest.of(0, size)));
     }
 
     @Override
-    public ItemRequestDto getRequestById(Long userId, Long requestId) {
-        userRepository.findById(userId).orElseThrow(
-                () -> new UserNotFoundException(String.format("User with id=%d not found!", userId))
-        );
+    public ItemRequestDto getRequestById(UserPrincipal user, Long requestId) {
         final ItemRequest request = itemRequestRepository.findById(requestId).orElseThrow(
                 () -> new ItemNotFoundException(String.format("Item request with id=%d not found!", requestId))
         );
@@ -103,15 +91,31 @@ public class RequestServiceImpl implements RequestService {
         return ItemRequestMapper.mapToItemRequestDto(request, items);
     }
 
+    @Override
+    public String getRequestETag(Long requestId) {
+        return itemRequestRepository.findVersionById(requestId)
+                .map(version -> String.format("request-%d-%d", requestId, version))
+                .orElse(null);
+    }
+
     @Override
     @Transactional
-    public void deleteById(Long userId, Long id) {
-        userRepository.findById(userId).orElseThrow(
-                () -> new UserNotFoundException(String.format("User with id=%d not found!", userId))
-        );
+    public void deleteById(UserPrincipal user, Long id) {
         final ItemRequest request = itemRequestRepository.findById(id).orElseThrow(
                 () -> new ItemNotFoundException(String.format("Item request with id=%d not found!", id))
         );
         itemRequestRepository.deleteById(request.getId());
     }
+
+    private List<ItemRequestDto> mapWithItems(List<ItemRequest> requests) {
+        if (requests.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final Map<Long, Set<Item>> items = itemRepository.findItemByRequestIn(requests).stream()
+                .collect(groupingBy(item -> item.getRequest().getId(), toSet()));
+
+        return requests.stream()
+                .map(it -> ItemRequestMapper.mapToItemRequestDto(it, items.get(it.getId())))
+                .collect(toList());
+    }
 }
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.user;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Пользователь из заголовка X-Sharer-User-Id, существование которого уже проверено.
+ * Создаётся UserPrincipalArgumentResolver один раз на запрос и передаётся в сервисы вместо id,
+ * поэтому сервисы существование пользователя повторно не проверяют.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@RequiredArgsConstructor
+public class UserPrincipal {
+    public static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    private final long id;
+}
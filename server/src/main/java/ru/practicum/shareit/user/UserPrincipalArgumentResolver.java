@@ -0,0 +1,58 @@
+package ru.practicum.shareit.user;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.MissingRequestHeaderException;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.user.service.UserExistenceCache;
+
+/**
+ * Разбирает заголовок X-Sharer-User-Id и проверяет пользователя один раз на запрос:
+ * результат сохраняется в атрибутах запроса и переиспользуется остальными параметрами.
+ */
+public class UserPrincipalArgumentResolver implements HandlerMethodArgumentResolver {
+    private static final String PRINCIPAL_ATTRIBUTE = UserPrincipal.class.getName();
+    private final UserExistenceCache userExistenceCache;
+
+    public UserPrincipalArgumentResolver(UserExistenceCache userExistenceCache) {
+        this.userExistenceCache = userExistenceCache;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return UserPrincipal.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public UserPrincipal resolveArgument(MethodParameter parameter,
+                                         ModelAndViewContainer mavContainer,
+                                         NativeWebRequest webRequest,
+                                         WebDataBinderFactory binderFactory) throws MissingRequestHeaderException {
+        final Object resolved = webRequest.getAttribute(PRINCIPAL_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (resolved != null) {
+            return (UserPrincipal) resolved;
+        }
+        final String header = webRequest.getHeader(UserPrincipal.USER_ID_HEADER);
+        if (header == null) {
+            throw new MissingRequestHeaderException(UserPrincipal.USER_ID_HEADER, parameter);
+        }
+        final long userId;
+        try {
+            userId = Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            throw new ValidationException(String.format("Некорректный заголовок %s=%s!",
+                    UserPrincipal.USER_ID_HEADER, header));
+        }
+        if (!userExistenceCache.exists(userId)) {
+            throw new UserNotFoundException(String.format("Пользователь с id=%d не найден!", userId));
+        }
+        final UserPrincipal principal = new UserPrincipal(userId);
+        webRequest.setAttribute(PRINCIPAL_ATTRIBUTE, principal, RequestAttributes.SCOPE_REQUEST);
+        return principal;
+    }
+}
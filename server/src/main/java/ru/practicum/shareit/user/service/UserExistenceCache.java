@@ -0,0 +1,46 @@
+package ru.practicum.shareit.user.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.Duration;
+
+/**
+ * Проверка существования пользователя из заголовка X-Sharer-User-Id без загрузки сущности.
+ * Запоминаются только существующие id: созданный пользователь сразу виден, удалённый вычищается
+ * в UserServiceImpl после фиксации удаления, а срок жизни записи ограничивает расхождение с удалениями
+ * на других узлах.
+ * <p>
+ * Проверка по БД выполняется внутри вычисления записи кеша, поэтому remove ждёт её завершения и
+ * удаляет результат: чтение, начатое до фиксации удаления, не возвращает id в кеш.
+ */
+@Component
+public class UserExistenceCache {
+    private static final long MAXIMUM_SIZE = 10_000;
+    private static final Duration EXPIRE_AFTER_WRITE = Duration.ofMinutes(5);
+    private final UserRepository userRepository;
+    private final Cache<Long, Boolean> existingIds = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .expireAfterWrite(EXPIRE_AFTER_WRITE)
+            .build();
+
+    @Autowired
+    public UserExistenceCache(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    public boolean exists(long userId) {
+        return existingIds.get(userId, id -> userRepository.existsById(id) ? Boolean.TRUE : null) != null;
+    }
+
+    public void add(long userId) {
+        existingIds.put(userId, Boolean.TRUE);
+    }
+
+    public void remove(long userId) {
+        existingIds.invalidate(userId);
+    }
+}
@@ -4,6 +4,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.AfterCommit;
 import ru.practicum.shareit.exception.UserNotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -18,10 +19,12 @@ import java.util.List;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final UserExistenceCache userExistenceCache;
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository) {
+    public UserServiceImpl(UserRepository userRepository, UserExistenceCache userExistenceCache) {
         this.userRepository = userRepository;
+        this.userExistenceCache = userExistenceCache;
     }
 
     @Transactional
@@ -29,6 +32,7 @@ public class UserServiceImpl implements UserService {
     public UserDto saveUser(UserDto userDto) {
         if (userValidation(userDto)) {
             User user = userRepository.save(UserMapper.mapToUser(userDto));
+            AfterCommit.run(() -> userExistenceCache.add(user.getId()));
             return UserMapper.mapToUserDto(user);
         } else {
             throw new ValidationException("Проверьте корректность введённых данных");
@@ -73,10 +77,11 @@ public class UserServiceImpl implements UserService {
     @Transactional
     @Override
     public void deleteUser(long userId) {
-        userRepository.findById(userId).orElseThrow(
-                () -> new UserNotFoundException(String.format("Пользователь с id=%d не найден!", userId))
-        );
+        if (!userExistenceCache.exists(userId)) {
+            throw new UserNotFoundException(String.format("Пользователь с id=%d не найден!", userId));
+        }
         userRepository.deleteById(userId);
+        AfterCommit.run(() -> userExistenceCache.remove(userId));
     }
 
     private boolean userValidation(UserDto userDto) {
@@ -0,0 +1,8 @@
+-- Выполняется после schema.sql (spring.sql.init.schema-locations): индексы строятся по уже созданным таблицам.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_items_search ON items USING GIN (to_tsvector('russian', name || ' ' || description))
+    WHERE is_available;
+
+CREATE INDEX IF NOT EXISTS idx_items_available_trgm ON items USING GIN (UPPER(name) gin_trgm_ops, UPPER(description) gin_trgm_ops)
+    WHERE is_available;
@@ -1,8 +1,9 @@
 CREATE TABLE IF NOT EXISTS users
 (
-    id    BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
-    name  VARCHAR(255) NOT NULL,
-    email VARCHAR(255) NOT NULL,
+    id      BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name    VARCHAR(255) NOT NULL,
+    email   VARCHAR(255) NOT NULL,
+    version BIGINT       NOT NULL DEFAULT 0,
     UNIQUE (email)
 );
 
@@ -12,6 +13,7 @@ CREATE TABLE IF NOT EXISTS requests
     description  VARCHAR(1000)               NOT NULL,
     requestor_id BIGINT,
     created      TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    version      BIGINT                      NOT NULL DEFAULT 0,
     FOREIGN KEY (requestor_id) REFERENCES users (id)
 );
 
@@ -23,6 +25,7 @@ CREATE TABLE IF NOT EXISTS items
     is_available BOOLEAN       NOT NULL,
     owner_id     BIGINT,
     request_id   BIGINT,
+    version      BIGINT        NOT NULL DEFAULT 0,
     FOREIGN KEY (owner_id) REFERENCES users (id),
     FOREIGN KEY (request_id) REFERENCES requests (id)
 );
@@ -35,6 +38,7 @@ CREATE TABLE IF NOT EXISTS bookings
     item_id    BIGINT,
     booker_id  BIGINT,
     status     VARCHAR(8)                  NOT NULL,
+    version    BIGINT                      NOT NULL DEFAULT 0,
     FOREIGN KEY (item_id) REFERENCES items (id),
     FOREIGN KEY (booker_id) REFERENCES users (id)
 );
@@ -48,4 +52,24 @@ CREATE TABLE IF NOT EXISTS comments
     author_id BIGINT                   NOT NULL,
     FOREIGN KEY (item_id) REFERENCES items (id),
     FOREIGN KEY (author_id) REFERENCES users (id)
-);
\ No newline at end of file
+);
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE requests ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE items ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS idx_items_owner_id ON items (owner_id);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date DESC);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_status_start ON bookings (booker_id, status, start_date DESC);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_date DESC);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_start ON bookings (item_id, status, start_date);
+
+CREATE INDEX IF NOT EXISTS idx_requests_created ON requests (created DESC, id DESC);
@@ -0,0 +1,102 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.ItemNotFoundException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+    private static final int THREADS = 8;
+    private SingleFlight<Long, String> singleFlight;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void init() {
+        singleFlight = new SingleFlight<>();
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallsShareOneComputation() throws Exception {
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Future<String> leader = executor.submit(() -> singleFlight.execute(1L, () -> {
+            loads.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "Saw";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        final CountDownLatch arrived = new CountDownLatch(THREADS - 1);
+        final List<Future<String>> followers = new ArrayList<>();
+        for (int i = 1; i < THREADS; i++) {
+            followers.add(executor.submit(() -> {
+                arrived.countDown();
+                return singleFlight.execute(1L, () -> {
+                    loads.incrementAndGet();
+                    return "Other";
+                });
+            }));
+        }
+        final String other = singleFlight.execute(2L, () -> "Drill");
+        assertTrue(arrived.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        release.countDown();
+
+        assertEquals("Saw", leader.get(5, TimeUnit.SECONDS));
+        for (Future<String> follower : followers) {
+            assertEquals("Saw", follower.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals("Drill", other);
+        assertEquals(1, loads.get());
+        assertEquals("Fan", singleFlight.execute(1L, () -> "Fan"));
+    }
+
+    @Test
+    void failureIsRethrownToEveryWaiter() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Future<String> leader = executor.submit(() -> singleFlight.execute(1L, () -> {
+            started.countDown();
+            await(release);
+            throw new ItemNotFoundException("Вещь с id=1 не найдена!");
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        final Future<String> follower = executor.submit(() -> singleFlight.execute(1L, () -> "Saw"));
+        Thread.sleep(100);
+        release.countDown();
+
+        for (Future<String> call : List.of(leader, follower)) {
+            final Exception exception = assertThrows(Exception.class, () -> call.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(ItemNotFoundException.class, exception.getCause());
+        }
+        assertEquals("Saw", singleFlight.execute(1L, () -> "Saw"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
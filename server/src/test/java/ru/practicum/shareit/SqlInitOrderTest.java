@@ -0,0 +1,91 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.context.config.ConfigDataEnvironmentPostProcessor;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.init.DataSourceScriptDatabaseInitializer;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.util.StreamUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Порядок скриптов инициализации схемы: платформенный скрипт создаёт индексы по таблицам из schema.sql,
+ * поэтому должен выполняться после него, а не перед ним, как по умолчанию в Spring Boot.
+ */
+public class SqlInitOrderTest {
+
+    @Test
+    void postgresSchemaRunsAfterCommonSchema() {
+        assertEquals(List.of("schema.sql", "schema-postgresql.sql"), schemaScripts());
+    }
+
+    @Test
+    void testProfileRunsOnlyCommonSchema() {
+        assertEquals(List.of("schema.sql"), schemaScripts("test"));
+    }
+
+    @Test
+    void postgresSchemaIndexesOnlyTablesFromCommonSchema() throws IOException {
+        String common = read("schema.sql");
+        Matcher indexed = Pattern.compile("CREATE INDEX IF NOT EXISTS \\w+ ON (\\w+)")
+                .matcher(read("schema-postgresql.sql"));
+        int indexes = 0;
+        while (indexed.find()) {
+            indexes++;
+            assertTrue(common.contains("CREATE TABLE IF NOT EXISTS " + indexed.group(1)), indexed.group());
+        }
+        assertEquals(2, indexes);
+    }
+
+    private String read(String script) throws IOException {
+        return StreamUtils.copyToString(new ClassPathResource(script).getInputStream(), StandardCharsets.UTF_8);
+    }
+
+    private List<String> schemaScripts(String... profiles) {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().remove(StandardEnvironment.SYSTEM_PROPERTIES_PROPERTY_SOURCE_NAME);
+        environment.getPropertySources().remove(StandardEnvironment.SYSTEM_ENVIRONMENT_PROPERTY_SOURCE_NAME);
+        ConfigDataEnvironmentPostProcessor.applyTo(environment, new DefaultResourceLoader(), null, profiles);
+        SqlInitializationProperties properties = Binder.get(environment)
+                .bind("spring.sql.init", SqlInitializationProperties.class)
+                .get();
+        properties.setDataLocations(List.of());
+
+        RecordingInitializer initializer = new RecordingInitializer(mock(DataSource.class), properties);
+        initializer.setResourceLoader(new DefaultResourceLoader());
+        initializer.initializeDatabase();
+        return initializer.scripts;
+    }
+
+    private static class RecordingInitializer extends DataSourceScriptDatabaseInitializer {
+        private final List<String> scripts = new ArrayList<>();
+
+        RecordingInitializer(DataSource dataSource, SqlInitializationProperties properties) {
+            super(dataSource, SqlDataSourceScriptDatabaseInitializer.getSettings(properties));
+        }
+
+        @Override
+        protected void runScripts(List<Resource> resources, boolean continueOnError, String separator,
+                                  Charset encoding) {
+            scripts.addAll(resources.stream().map(Resource::getFilename).collect(Collectors.toList()));
+        }
+    }
+}
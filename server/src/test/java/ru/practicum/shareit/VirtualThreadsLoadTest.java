@@ -0,0 +1,114 @@
+package ru.practicum.shareit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.UserPrincipal;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Пропускная способность сервера при высокой конкурентности. Режимы сравниваются двумя запусками:
+ * mvn test -pl server -Dtest=VirtualThreadsLoadTest -Dshareit.benchmark=true
+ * mvn test -pl server -Dtest=VirtualThreadsLoadTest -Dshareit.benchmark=true -Pvirtual-threads
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@EnabledIfSystemProperty(named = "shareit.benchmark", matches = "true")
+@Slf4j
+public class VirtualThreadsLoadTest {
+    private static final int CONCURRENCY = 1000;
+    private static final int REQUESTS = 20_000;
+    private static final int WARMUP_REQUESTS = 2_000;
+    @LocalServerPort
+    private int port;
+    @Value("${shareit.threads.virtual:false}")
+    private boolean virtualThreads;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+
+    @Test
+    void throughputAtHighConcurrency() throws InterruptedException {
+        final UserDto owner = userService.saveUser(new UserDto(null, "Load", "load@gmail.com"));
+        for (int i = 0; i < 20; i++) {
+            itemService.addNewItem(new UserPrincipal(owner.getId()), ItemDto.builder()
+                    .name("Item" + i)
+                    .description("Load test item")
+                    .available(true)
+                    .build());
+        }
+        final HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        final HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/items"))
+                .header("X-Sharer-User-Id", String.valueOf(owner.getId()))
+                .timeout(Duration.ofSeconds(60))
+                .build();
+
+        final AtomicInteger warmupFailed = new AtomicInteger();
+        run(client, request, WARMUP_REQUESTS, warmupFailed);
+        assertEquals(0, warmupFailed.get(), "failed warmup requests");
+
+        final AtomicInteger failed = new AtomicInteger();
+        final long started = System.nanoTime();
+        final long[] latencies = run(client, request, REQUESTS, failed);
+        final long millis = (System.nanoTime() - started) / 1_000_000;
+
+        Arrays.sort(latencies);
+        log.info("{} threads: {} requests, {} failed, concurrency {}, {} req/s, p50 {} ms, p99 {} ms",
+                virtualThreads ? "virtual" : "platform", REQUESTS, failed.get(), CONCURRENCY, REQUESTS * 1000L / millis,
+                latencies[latencies.length / 2] / 1_000_000, latencies[latencies.length * 99 / 100] / 1_000_000);
+        assertEquals(0, failed.get(), "failed requests");
+    }
+
+    /**
+     * Выполняет count запросов, не больше CONCURRENCY одновременно.
+     * @param failed счётчик запросов, завершившихся ошибкой или статусом, отличным от 200.
+     * @return задержки запросов в наносекундах.
+     */
+    private static long[] run(HttpClient client, HttpRequest request, int count, AtomicInteger failed)
+            throws InterruptedException {
+        final Semaphore inFlight = new Semaphore(CONCURRENCY);
+        final CountDownLatch done = new CountDownLatch(count);
+        final long[] latencies = new long[count];
+
+        for (int i = 0; i < count; i++) {
+            final int index = i;
+            inFlight.acquire();
+            final long start = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, e) -> {
+                        latencies[index] = System.nanoTime() - start;
+                        if (e != null || response.statusCode() != 200) {
+                            failed.incrementAndGet();
+                        }
+                        inFlight.release();
+                        done.countDown();
+                    });
+        }
+        assertTrue(done.await(5, TimeUnit.MINUTES), "requests did not complete in 5 minutes");
+        return latencies;
+    }
+}
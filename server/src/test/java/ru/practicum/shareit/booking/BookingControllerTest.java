@@ -7,11 +7,13 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import org.mockito.Mockito;
 import ru.practicum.shareit.booking.controller.BookingController;
+import ru.practicum.shareit.user.UserPrincipal;
 import ru.practicum.shareit.booking.dto.BookingDtoWithEntities;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.exception.UserNotFoundException;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.dto.BookingDto;
@@ -30,6 +32,8 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import ru.practicum.shareit.exception.BookingStateExistsException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.request.KeysetCursor;
 import ru.practicum.shareit.utils.LocalDateTimeAdapter;
 
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -47,9 +51,12 @@ class BookingControllerTest {
     private MockMvc mockMvc;
     @MockBean
     private BookingService bookingService;
+    @MockBean
+    private UserExistenceCache userExistenceCache;
 
     @BeforeEach
     void init() {
+        Mockito.when(userExistenceCache.exists(Mockito.anyLong())).thenReturn(true);
         owner = new UserDto(1L, "John", "john@gmail.com");
         booker = new UserDto(2L, "Fred", "fred@gmail.com");
         item = Item.builder()
@@ -83,7 +90,7 @@ class BookingControllerTest {
     @Test
     @DisplayName("Send GET request /bookings/{id}")
     void findBookingById() throws Exception {
-        Mockito.when(bookingService.findBookingById(owner.getId(), booking.getId())).thenReturn(bookingDtoWithEntities);
+        Mockito.when(bookingService.findBookingById(new UserPrincipal(owner.getId()), booking.getId())).thenReturn(bookingDtoWithEntities);
 
         this.mockMvc.perform(MockMvcRequestBuilders
                         .get("/bookings/{id}", booking.getId())
@@ -92,13 +99,13 @@ class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.id").isNumber());
 
-        Mockito.verify(bookingService, Mockito.times(1)).findBookingById(owner.getId(), booking.getId());
+        Mockito.verify(bookingService, Mockito.times(1)).findBookingById(new UserPrincipal(owner.getId()), booking.getId());
     }
 
     @Test
     @DisplayName("Send GET request /bookings/{id}")
     void findBookingByNotValidId() throws Exception {
-        Mockito.when(bookingService.findBookingById(owner.getId(), booking.getId())).thenThrow(UserNotFoundException.class);
+        Mockito.when(bookingService.findBookingById(new UserPrincipal(owner.getId()), booking.getId())).thenThrow(UserNotFoundException.class);
 
         this.mockMvc.perform(MockMvcRequestBuilders
                         .get("/bookings/{id}", booking.getId())
@@ -106,13 +113,13 @@ class BookingControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
 
-        Mockito.verify(bookingService, Mockito.times(1)).findBookingById(owner.getId(), booking.getId());
+        Mockito.verify(bookingService, Mockito.times(1)).findBookingById(new UserPrincipal(owner.getId()), booking.getId());
     }
 
     @Test
     @DisplayName("Send GET request /bookings?state={state}&from={from}&size={size}")
     void findAllByBookerId() throws Exception {
-        Mockito.when(bookingService.findAllByBookerId(booker.getId(), "ALL", 0, 10)).thenReturn(List.of(bookingDtoWithEntities));
+        Mockito.when(bookingService.findAllByBookerId(new UserPrincipal(booker.getId()), "ALL", 0, 10)).thenReturn(List.of(bookingDtoWithEntities));
 
         this.mockMvc.perform(MockMvcRequestBuilders
                         .get("/bookings?state={state}&from={from}&size={size}", BookingState.ALL, 0, 10)
@@ -121,13 +128,13 @@ class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").isNumber());
 
-        Mockito.verify(bookingService, Mockito.times(1)).findAllByBookerId(booker.getId(), "ALL", 0, 10);
+        Mockito.verify(bookingService, Mockito.times(1)).findAllByBookerId(new UserPrincipal(booker.getId()), "ALL", 0, 10);
     }
 
     @Test
     @DisplayName("Send GET request /bookings?state={state}&from={from}&size={size}")
     void findAllByBookerIdAndNotValidState() throws Exception {
-        Mockito.when(bookingService.findAllByBookerId(booker.getId(), "PPS", 0, 10)).thenThrow(BookingStateExistsException.class);
+        Mockito.when(bookingService.findAllByBookerId(new UserPrincipal(booker.getId()), "PPS", 0, 10)).thenThrow(BookingStateExistsException.class);
 
         this.mockMvc.perform(MockMvcRequestBuilders
                         .get("/bookings?state={state}&from={from}&size={size}", "PPS", 0, 10)
@@ -135,13 +142,13 @@ class BookingControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest());
 
-        Mockito.verify(bookingService, Mockito.times(1)).findAllByBookerId(booker.getId(), "PPS", 0, 10);
+        Mockito.verify(bookingService, Mockito.times(1)).findAllByBookerId(new UserPrincipal(booker.getId()), "PPS", 0, 10);
     }
 
     @Test
     @DisplayName("Send GET request /bookings/owner?state={state}&from={from}&size={size}")
     void findAllByItemOwnerId() throws Exception {
-        Mockito.when(bookingService.findAllByItemOwnerId(owner.getId(), "ALL", 0, 10)).thenReturn(List.of(bookingDtoWithEntities));
+        Mockito.when(bookingService.findAllByItemOwnerId(new UserPrincipal(owner.getId()), "ALL", 0, 10)).thenReturn(List.of(bookingDtoWithEntities));
 
         this.mockMvc.perform(MockMvcRequestBuilders
                         .get("/bookings/owner?state={state}&from={from}&size={size}", BookingState.ALL, 0, 10)
@@ -150,13 +157,62 @@ class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").isNumber());
 
-        Mockito.verify(bookingService, Mockito.times(1)).findAllByItemOwnerId(owner.getId(), "ALL", 0, 10);
+        Mockito.verify(bookingService, Mockito.times(1)).findAllByItemOwnerId(new UserPrincipal(owner.getId()), "ALL", 0, 10);
+    }
+
+    @Test
+    @DisplayName("Send GET request /bookings?state={state}&size={size}&after={after}")
+    void findAllByBookerIdAfterCursor() throws Exception {
+        String after = new KeysetCursor(LocalDateTime.now(), 5L).encode();
+        String next = new KeysetCursor(bookingDtoWithEntities.getStart(), bookingDtoWithEntities.getId()).encode();
+        Mockito.when(bookingService.findAllByBookerIdAfter(new UserPrincipal(booker.getId()), "ALL", after, 1)).thenReturn(List.of(bookingDtoWithEntities));
+
+        this.mockMvc.perform(MockMvcRequestBuilders
+                        .get("/bookings?state={state}&size={size}&after={after}", BookingState.ALL, 1, after)
+                        .header("X-Sharer-User-Id", booker.getId())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("X-Next-Cursor", next))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").isNumber());
+
+        Mockito.verify(bookingService, Mockito.times(1)).findAllByBookerIdAfter(new UserPrincipal(booker.getId()), "ALL", after, 1);
+        Mockito.verify(bookingService, Mockito.never()).findAllByBookerId(Mockito.any(UserPrincipal.class), Mockito.anyString(),
+                Mockito.anyInt(), Mockito.anyInt());
+    }
+
+    @Test
+    @DisplayName("Send GET request /bookings/owner?state={state}&size={size}&after={after}")
+    void findAllByItemOwnerIdAfterCursor() throws Exception {
+        String after = new KeysetCursor(LocalDateTime.now(), 5L).encode();
+        Mockito.when(bookingService.findAllByItemOwnerIdAfter(new UserPrincipal(owner.getId()), "ALL", after, 10)).thenReturn(List.of(bookingDtoWithEntities));
+
+        this.mockMvc.perform(MockMvcRequestBuilders
+                        .get("/bookings/owner?state={state}&size={size}&after={after}", BookingState.ALL, 10, after)
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.header().doesNotExist("X-Next-Cursor"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").isNumber());
+
+        Mockito.verify(bookingService, Mockito.times(1)).findAllByItemOwnerIdAfter(new UserPrincipal(owner.getId()), "ALL", after, 10);
+    }
+
+    @Test
+    @DisplayName("Send GET request /bookings/owner?state={state}&size={size}&after={after}")
+    void findAllByItemOwnerIdAfterNotValidCursor() throws Exception {
+        Mockito.when(bookingService.findAllByItemOwnerIdAfter(new UserPrincipal(owner.getId()), "ALL", "abc", 10)).thenThrow(ValidationException.class);
+
+        this.mockMvc.perform(MockMvcRequestBuilders
+                        .get("/bookings/owner?state={state}&size={size}&after={after}", BookingState.ALL, 10, "abc")
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
     @DisplayName("Send GET request /bookings/owner?state={state}&from={from}&size={size}")
     void findAllByItemOwnerIdAndNotValidState() throws Exception {
-        Mockito.when(bookingService.findAllByItemOwnerId(owner.getId(), "PPS", 0, 10)).thenThrow(BookingStateExistsException.class);
+        Mockito.when(bookingService.findAllByItemOwnerId(new UserPrincipal(owner.getId()), "PPS", 0, 10)).thenThrow(BookingStateExistsException.class);
 
         this.mockMvc.perform(MockMvcRequestBuilders
                         .get("/bookings/owner?state={state}&from={from}&size={size}", "PPS", 0, 10)
@@ -164,7 +220,7 @@ class BookingControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest());
 
-        Mockito.verify(bookingService, Mockito.times(1)).findAllByItemOwnerId(owner.getId(), "PPS", 0, 10);
+        Mockito.verify(bookingService, Mockito.times(1)).findAllByItemOwnerId(new UserPrincipal(owner.getId()), "PPS", 0, 10);
     }
 
     @Test
@@ -172,7 +228,7 @@ class BookingControllerTest {
     void createBooking() throws Exception {
         dto.setStart(booking.getStart().plusDays(15));
         dto.setEnd(booking.getEnd().plusDays(10));
-        Mockito.when(bookingService.createBooking(Mockito.anyLong(), Mockito.any())).thenReturn(bookingDtoWithEntities);
+        Mockito.when(bookingService.createBooking(Mockito.any(UserPrincipal.class), Mockito.any())).thenReturn(bookingDtoWithEntities);
 
         this.mockMvc.perform(MockMvcRequestBuilders
                         .post("/bookings")
@@ -181,14 +237,14 @@ class BookingControllerTest {
                         .content(gson.toJson(dto)))
                 .andExpect(status().isOk());
 
-        Mockito.verify(bookingService, Mockito.times(1)).createBooking(Mockito.anyLong(), Mockito.any());
+        Mockito.verify(bookingService, Mockito.times(1)).createBooking(Mockito.any(UserPrincipal.class), Mockito.any());
     }
 
     @Test
     @DisplayName("Send PATCH request /bookings/{id}?approved={approved}")
     void updateBooking() throws Exception {
         bookingDtoWithEntities.setStatus(BookingStatus.REJECTED);
-        Mockito.when(bookingService.updateBooking(owner.getId(), booking.getId(), false)).thenReturn(bookingDtoWithEntities);
+        Mockito.when(bookingService.updateBooking(new UserPrincipal(owner.getId()), booking.getId(), false)).thenReturn(bookingDtoWithEntities);
 
         this.mockMvc.perform(MockMvcRequestBuilders
                         .patch("/bookings/{id}?approved={approved}", booking.getId(), false)
@@ -197,7 +253,7 @@ class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.status").value(BookingStatus.REJECTED.name()));
 
-        Mockito.verify(bookingService, Mockito.times(1)).updateBooking(owner.getId(), booking.getId(), false);
+        Mockito.verify(bookingService, Mockito.times(1)).updateBooking(new UserPrincipal(owner.getId()), booking.getId(), false);
     }
 
     @Test
@@ -219,6 +275,6 @@ class BookingControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
 
-        Mockito.verify(bookingService, Mockito.times(1)).deleteBookingById(owner.getId(), booking.getId());
+        Mockito.verify(bookingService, Mockito.times(1)).deleteBookingById(new UserPrincipal(owner.getId()), booking.getId());
     }
 }
@@ -14,6 +14,7 @@ import javax.persistence.TypedQuery;
 import javax.persistence.EntityManager;
 
 import ru.practicum.shareit.booking.dto.BookingDtoWithEntities;
+import ru.practicum.shareit.user.UserPrincipal;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.exception.BookingNotFoundException;
 import ru.practicum.shareit.item.mapper.ItemMapper;
@@ -75,7 +76,7 @@ public class BookingDbTest {
                 .setParameter("id", dto.getId())
                 .getSingleResult();
 
-        dto = bookingService.findBookingById(owner.getId(), id);
+        dto = bookingService.findBookingById(new UserPrincipal(owner.getId()), id);
 
         assertThat(dto.getId()).isNotNull();
         assertThat(dto.getStart()).isBefore(LocalDateTime.now());
@@ -93,7 +94,7 @@ public class BookingDbTest {
                 .setParameter("id", booker.getId())
                 .getResultList();
 
-        List<BookingDtoWithEntities> bookings = bookingService.findAllByBookerId(booker.getId(), BookingState.ALL.name(), 0, 10);
+        List<BookingDtoWithEntities> bookings = bookingService.findAllByBookerId(new UserPrincipal(booker.getId()), BookingState.ALL.name(), 0, 10);
 
         assertThat(result.size()).isEqualTo(bookings.size());
     }
@@ -107,7 +108,7 @@ public class BookingDbTest {
                 .setParameter("id", owner.getId())
                 .getResultList();
 
-        List<BookingDtoWithEntities> bookings = bookingService.findAllByItemOwnerId(owner.getId(), BookingState.ALL.name(), 0, 10);
+        List<BookingDtoWithEntities> bookings = bookingService.findAllByItemOwnerId(new UserPrincipal(owner.getId()), BookingState.ALL.name(), 0, 10);
 
         assertThat(result.size()).isEqualTo(bookings.size());
     }
@@ -136,9 +137,9 @@ public class BookingDbTest {
                 .setParameter("id", dto.getId())
                 .getSingleResult();
 
-        bookingService.deleteBookingById(owner.getId(), id);
+        bookingService.deleteBookingById(new UserPrincipal(owner.getId()), id);
         BookingNotFoundException exception = assertThrows(BookingNotFoundException.class, () -> {
-            bookingService.findBookingById(owner.getId(), id);
+            bookingService.findBookingById(new UserPrincipal(owner.getId()), id);
         });
 
         String expectedMessage = String.format("Бронирование с id=%d не найдено!", id);
@@ -157,10 +158,10 @@ public class BookingDbTest {
         booker.setId(userDto.getId());
 
         ItemDto itemDto = ItemMapper.mapToItemDto(item, Set.of());
-        itemDto = itemService.addNewItem(owner.getId(), itemDto);
+        itemDto = itemService.addNewItem(new UserPrincipal(owner.getId()), itemDto);
         item.setId(itemDto.getId());
 
         BookingDto bookingDto = BookingMapper.mapToBookingDtoWithIds(booking);
-        return bookingService.createBooking(booker.getId(), bookingDto);
+        return bookingService.createBooking(new UserPrincipal(booker.getId()), bookingDto);
     }
 }
@@ -0,0 +1,224 @@
+package ru.practicum.shareit.booking;
+
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.hibernate.Session;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.KeysetCursor;
+import ru.practicum.shareit.user.model.User;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Планы выполнения (EXPLAIN) запросов, которые на самом деле выполняет BookingRepository на H2.
+ * SQL перехватывается StatementInspector-ом, параметры подставляются по типам из ParameterMetaData.
+ * <p>
+ * H2 сам создаёт индексы под внешние ключи и при равной стоимости выбирает их, а в PostgreSQL таких
+ * индексов нет. Поэтому внешние ключи bookings и items удаляются, а данные фиксируются и
+ * анализируются (ANALYZE) один раз: без индексов из schema.sql запросы уходят в полное сканирование.
+ * Контекст с этим StatementInspector-ом и его база используются только этим тестом.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+        "ru.practicum.shareit.booking.BookingIndexTest$SqlRecorder")
+public class BookingIndexTest {
+    private static final LocalDateTime NOW = LocalDateTime.now();
+    private static final Pageable PAGE = Pageable.ofSize(10);
+    private static boolean initialized;
+    @Autowired
+    private TestEntityManager em;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @BeforeEach
+    void init() {
+        if (!initialized) {
+            dropForeignKeys();
+            persistBookings();
+            // ANALYZE фиксирует транзакцию вместе с данными.
+            em.getEntityManager().createNativeQuery("ANALYZE").executeUpdate();
+            initialized = true;
+        }
+        SqlRecorder.clear();
+    }
+
+    private void dropForeignKeys() {
+        @SuppressWarnings("unchecked")
+        final List<Object[]> foreignKeys = em.getEntityManager()
+                .createNativeQuery("SELECT TABLE_NAME, CONSTRAINT_NAME FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS " +
+                        "WHERE CONSTRAINT_TYPE = 'FOREIGN KEY' AND TABLE_NAME IN ('BOOKINGS', 'ITEMS')")
+                .getResultList();
+        for (Object[] foreignKey : foreignKeys) {
+            em.getEntityManager()
+                    .createNativeQuery(String.format("ALTER TABLE %s DROP CONSTRAINT %s", foreignKey[0], foreignKey[1]))
+                    .executeUpdate();
+        }
+    }
+
+    private void persistBookings() {
+        final BookingStatus[] statuses = BookingStatus.values();
+        for (int i = 0; i < 10; i++) {
+            final User user = em.persist(new User(null, "User" + i, "user" + i + "@gmail.com"));
+            final Item item = em.persist(Item.builder()
+                    .name("Item" + i)
+                    .description("Item")
+                    .available(true)
+                    .owner(user)
+                    .build());
+            for (int j = 0; j < 20; j++) {
+                em.persist(new Booking(null, NOW.plusDays(j), NOW.plusDays(j + 1),
+                        statuses[j % statuses.length], item, user));
+            }
+        }
+        em.flush();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"IDX_ITEMS_OWNER_ID", "IDX_BOOKINGS_BOOKER_START", "IDX_BOOKINGS_BOOKER_STATUS_START",
+            "IDX_BOOKINGS_ITEM_START", "IDX_BOOKINGS_ITEM_STATUS_START"})
+    void indexExists(String index) {
+        Number count = (Number) em.getEntityManager()
+                .createNativeQuery("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE INDEX_NAME = ?1")
+                .setParameter(1, index)
+                .getSingleResult();
+
+        assertEquals(1, count.intValue());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("getQueries")
+    void queryUsesIndex(String repositoryMethod, Consumer<BookingRepository> call, Set<String> indexes) {
+        call.accept(bookingRepository);
+        final List<String> statements = SqlRecorder.statements();
+
+        assertEquals(1, statements.size(), statements::toString);
+        final String plan = explain(statements.get(0));
+        for (String index : indexes) {
+            assertThat(plan).as(plan).contains("PUBLIC." + index + ":");
+        }
+    }
+
+    private String explain(String sql) {
+        return em.getEntityManager().unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                final ParameterMetaData parameters = statement.getParameterMetaData();
+                for (int i = 1; i <= parameters.getParameterCount(); i++) {
+                    bind(statement, i, parameters.getParameterType(i));
+                }
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    return resultSet.getString(1);
+                }
+            }
+        });
+    }
+
+    /**
+     * Значения параметров на выбор индекса не влияют, важен только их тип.
+     */
+    private static void bind(PreparedStatement statement, int index, int type) throws SQLException {
+        switch (type) {
+            case Types.TIMESTAMP:
+                statement.setTimestamp(index, Timestamp.valueOf(NOW));
+                break;
+            case Types.VARCHAR:
+                statement.setString(index, BookingStatus.WAITING.name());
+                break;
+            default:
+                statement.setLong(index, 1L);
+                break;
+        }
+    }
+
+    private static Stream<Arguments> getQueries() {
+        final KeysetCursor cursor = new KeysetCursor(NOW, Long.MAX_VALUE);
+        return Stream.of(
+                Arguments.of("findAllByBookerId ALL",
+                        call(r -> r.findAllByBookerId(1L, BookingState.ALL, NOW, PAGE)),
+                        Set.of("IDX_BOOKINGS_BOOKER_START")),
+                Arguments.of("findAllByBookerId CURRENT",
+                        call(r -> r.findAllByBookerId(1L, BookingState.CURRENT, NOW, PAGE)),
+                        Set.of("IDX_BOOKINGS_BOOKER_START")),
+                Arguments.of("findAllByBookerId PAST",
+                        call(r -> r.findAllByBookerId(1L, BookingState.PAST, NOW, PAGE)),
+                        Set.of("IDX_BOOKINGS_BOOKER_START")),
+                Arguments.of("findAllByBookerId FUTURE",
+                        call(r -> r.findAllByBookerId(1L, BookingState.FUTURE, NOW, PAGE)),
+                        Set.of("IDX_BOOKINGS_BOOKER_START")),
+                Arguments.of("findAllByBookerId WAITING",
+                        call(r -> r.findAllByBookerId(1L, BookingState.WAITING, NOW, PAGE)),
+                        Set.of("IDX_BOOKINGS_BOOKER_STATUS_START")),
+                Arguments.of("findAllByBookerIdAfter ALL",
+                        call(r -> r.findAllByBookerIdAfter(1L, BookingState.ALL, NOW, cursor, 10)),
+                        Set.of("IDX_BOOKINGS_BOOKER_START")),
+                Arguments.of("findAllByItemOwnerId ALL",
+                        call(r -> r.findAllByItemOwnerId(1L, BookingState.ALL, NOW, PAGE)),
+                        Set.of("IDX_ITEMS_OWNER_ID", "IDX_BOOKINGS_ITEM_START")),
+                Arguments.of("findAllByItemOwnerId CURRENT",
+                        call(r -> r.findAllByItemOwnerId(1L, BookingState.CURRENT, NOW, PAGE)),
+                        Set.of("IDX_ITEMS_OWNER_ID", "IDX_BOOKINGS_ITEM_START")),
+                Arguments.of("findAllByItemOwnerId REJECTED",
+                        call(r -> r.findAllByItemOwnerId(1L, BookingState.REJECTED, NOW, PAGE)),
+                        Set.of("IDX_ITEMS_OWNER_ID", "IDX_BOOKINGS_ITEM_STATUS_START")),
+                Arguments.of("findAllByItemOwnerIdAfter ALL",
+                        call(r -> r.findAllByItemOwnerIdAfter(1L, BookingState.ALL, NOW, cursor, 10)),
+                        Set.of("IDX_ITEMS_OWNER_ID", "IDX_BOOKINGS_ITEM_START")),
+                Arguments.of("findAllByItemId",
+                        call(r -> r.findAllByItemId(1L)),
+                        Set.of("IDX_BOOKINGS_ITEM_START")),
+                Arguments.of("findLastAndNextApprovedBookings",
+                        call(r -> r.findLastAndNextApprovedBookings(List.of(1L, 2L), NOW)),
+                        Set.of("IDX_BOOKINGS_ITEM_STATUS_START"))
+        );
+    }
+
+    private static Consumer<BookingRepository> call(Consumer<BookingRepository> call) {
+        return call;
+    }
+
+    /**
+     * Запоминает SQL, который Hibernate отправляет в базу.
+     */
+    public static class SqlRecorder implements StatementInspector {
+        private static final List<String> STATEMENTS = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+
+        static void clear() {
+            STATEMENTS.clear();
+        }
+
+        static List<String> statements() {
+            return List.copyOf(STATEMENTS);
+        }
+    }
+}
@@ -61,6 +61,8 @@ public class BookingJsonTest {
         assertThat(json).extractingJsonPathStringValue("$.end").isNotNull();
         assertThat(json).extractingJsonPathStringValue("$.status").isEqualTo(dto.getStatus().name());
         assertThat(json).extractingJsonPathNumberValue("$.item.id").isNotNull();
+        assertThat(json).extractingJsonPathStringValue("$.item.name").isEqualTo(ITEM.getName());
+        assertThat(json).doesNotHaveJsonPath("$.item.description");
         assertThat(json).extractingJsonPathNumberValue("$.booker.id").isNotNull();
     }
 
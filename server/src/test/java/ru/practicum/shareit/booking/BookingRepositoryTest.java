@@ -1,23 +1,34 @@
 package ru.practicum.shareit.booking;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.stream.Stream;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import ru.practicum.shareit.booking.dto.BookingDtoWithEntities;
+import ru.practicum.shareit.booking.dto.BookingVersionRow;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.request.KeysetCursor;
+import ru.practicum.shareit.request.MyPageRequest;
+import static java.util.stream.Collectors.toList;
 import static org.junit.jupiter.api.Assertions.*;
 
 @DataJpaTest
@@ -52,14 +63,14 @@ public class BookingRepositoryTest {
 
     @AfterEach
     void tearDown() {
-        owner = em.find(User.class, owner.getId());
-        em.remove(owner);
-        booker = em.find(User.class, booker.getId());
-        em.remove(booker);
-        item = em.find(Item.class, item.getId());
-        em.remove(item);
         booking = em.find(Booking.class, booking.getId());
         em.remove(booking);
+        item = em.find(Item.class, item.getId());
+        em.remove(item);
+        booker = em.find(User.class, booker.getId());
+        em.remove(booker);
+        owner = em.find(User.class, owner.getId());
+        em.remove(owner);
         em.flush();
         em.clear();
     }
@@ -67,9 +78,8 @@ public class BookingRepositoryTest {
     @ParameterizedTest
     @MethodSource("getPageable")
     void findAllByItemOwnerId(Pageable pageable) {
-        List<Booking> bookings = pageable == null ?
-                bookingRepository.findAllByItemOwnerId(owner.getId()) :
-                bookingRepository.findAllByItemOwnerId(owner.getId(), pageable);
+        List<BookingDtoWithEntities> bookings = bookingRepository.findAllByItemOwnerId(owner.getId(), BookingState.ALL,
+                LocalDateTime.now(), pageable);
 
         assertNotNull(owner.getId());
         assertNotNull(booker.getId());
@@ -80,7 +90,8 @@ public class BookingRepositoryTest {
 
     @Test
     void findAllByBookerId() {
-        List<Booking> bookings = bookingRepository.findAllByBookerId(booker.getId(), Pageable.unpaged());
+        List<BookingDtoWithEntities> bookings = bookingRepository.findAllByBookerId(booker.getId(), BookingState.ALL,
+                LocalDateTime.now(), Pageable.unpaged());
 
         assertNotNull(owner.getId());
         assertNotNull(booker.getId());
@@ -100,10 +111,148 @@ public class BookingRepositoryTest {
         assertEquals(1, bookings.size());
     }
 
+    @Test
+    void findLastAndNextApprovedBookings() {
+        final LocalDateTime now = LocalDateTime.now();
+        final Booking oldest = new Booking(null, now.minusDays(10), now.minusDays(9), BookingStatus.APPROVED, item, booker);
+        final Booking last = new Booking(null, now.minusDays(5), now.minusDays(4), BookingStatus.APPROVED, item, booker);
+        final Booking rejected = new Booking(null, now.minusDays(2), now.minusDays(1), BookingStatus.REJECTED, item, booker);
+        final Booking next = new Booking(null, now.plusDays(1), now.plusDays(2), BookingStatus.APPROVED, item, booker);
+        final Booking latest = new Booking(null, now.plusDays(5), now.plusDays(6), BookingStatus.APPROVED, item, booker);
+        final List<Booking> history = List.of(oldest, last, rejected, next, latest);
+        history.forEach(em::persist);
+
+        List<Booking> bookings = bookingRepository.findLastAndNextApprovedBookings(List.of(item.getId(), Long.MAX_VALUE), now);
+
+        assertEquals(2, bookings.size());
+        assertTrue(bookings.stream().anyMatch(it -> it.getId().equals(last.getId())));
+        assertTrue(bookings.stream().anyMatch(it -> it.getId().equals(next.getId())));
+
+        history.forEach(em::remove);
+    }
+
+    @Test
+    void findAllByState() {
+        final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        final Booking first = new Booking(null, now.plusDays(3), now.plusDays(4), BookingStatus.WAITING, item, booker);
+        final Booking second = new Booking(null, now.plusDays(3), now.plusDays(5), BookingStatus.WAITING, item, booker);
+        final Booking third = new Booking(null, now.plusDays(1), now.plusDays(2), BookingStatus.REJECTED, item, booker);
+        final Booking past = new Booking(null, now.minusDays(5), now.minusDays(4), BookingStatus.APPROVED, item, booker);
+        final List<Booking> history = List.of(first, second, third, past);
+        history.forEach(em::persist);
+        final LocalDateTime currentTime = now.plusHours(1);
+
+        assertEquals(List.of(second.getId(), first.getId(), third.getId(), booking.getId(), past.getId()),
+                ids(bookingRepository.findAllByItemOwnerId(owner.getId(), BookingState.ALL, currentTime, Pageable.unpaged())));
+        assertEquals(List.of(booking.getId()),
+                ids(bookingRepository.findAllByBookerId(booker.getId(), BookingState.CURRENT, currentTime, Pageable.unpaged())));
+        assertEquals(List.of(past.getId()),
+                ids(bookingRepository.findAllByItemOwnerId(owner.getId(), BookingState.PAST, currentTime, Pageable.unpaged())));
+        assertEquals(List.of(second.getId(), first.getId(), third.getId()),
+                ids(bookingRepository.findAllByBookerId(booker.getId(), BookingState.FUTURE, currentTime, Pageable.unpaged())));
+        assertEquals(List.of(second.getId(), first.getId(), booking.getId()),
+                ids(bookingRepository.findAllByItemOwnerId(owner.getId(), BookingState.WAITING, currentTime, Pageable.unpaged())));
+        assertEquals(List.of(third.getId()),
+                ids(bookingRepository.findAllByBookerId(booker.getId(), BookingState.REJECTED, currentTime, Pageable.unpaged())));
+
+        final Sort sort = Sort.by(Sort.Direction.DESC, "start", "id");
+        assertEquals(List.of(first.getId(), third.getId()),
+                ids(bookingRepository.findAllByItemOwnerId(owner.getId(), BookingState.ALL, currentTime, new MyPageRequest(1, 2, sort))));
+        assertEquals(List.of(past.getId()),
+                ids(bookingRepository.findAllByBookerId(booker.getId(), BookingState.ALL, currentTime, new MyPageRequest(4, 2, sort))));
+        assertTrue(bookingRepository.findAllByBookerId(owner.getId(), BookingState.ALL, currentTime, Pageable.unpaged()).isEmpty());
+
+        history.forEach(em::remove);
+    }
+
+    @Test
+    void findAllAfterCursor() {
+        final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        final Booking first = new Booking(null, now.plusDays(3), now.plusDays(4), BookingStatus.WAITING, item, booker);
+        final Booking second = new Booking(null, now.plusDays(3), now.plusDays(5), BookingStatus.WAITING, item, booker);
+        final Booking third = new Booking(null, now.plusDays(1), now.plusDays(2), BookingStatus.REJECTED, item, booker);
+        final List<Booking> history = List.of(first, second, third);
+        history.forEach(em::persist);
+        final KeysetCursor top = new KeysetCursor(now.plusYears(100), Long.MAX_VALUE);
+
+        List<BookingDtoWithEntities> page = bookingRepository.findAllByBookerIdAfter(booker.getId(), BookingState.ALL, now, top, 2);
+        assertEquals(List.of(second.getId(), first.getId()), page.stream().map(BookingDtoWithEntities::getId).collect(toList()));
+
+        BookingDtoWithEntities last = page.get(1);
+        page = bookingRepository.findAllByItemOwnerIdAfter(owner.getId(), BookingState.ALL, now,
+                new KeysetCursor(last.getStart(), last.getId()), 2);
+        assertEquals(List.of(third.getId(), booking.getId()), page.stream().map(BookingDtoWithEntities::getId).collect(toList()));
+
+        page = bookingRepository.findAllByItemOwnerIdAfter(owner.getId(), BookingState.FUTURE, now.plusHours(1), top, 10);
+        assertEquals(3, page.size());
+        page = bookingRepository.findAllByBookerIdAfter(booker.getId(), BookingState.REJECTED, now, top, 10);
+        assertEquals(List.of(third.getId()), page.stream().map(BookingDtoWithEntities::getId).collect(toList()));
+        page = bookingRepository.findAllByBookerIdAfter(owner.getId(), BookingState.ALL, now, top, 10);
+        assertTrue(page.isEmpty());
+
+        history.forEach(em::remove);
+    }
+
+    @Test
+    void listingsAreReadWithoutLoadingEntities() {
+        final List<Booking> history = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            final User itemOwner = em.persist(new User(null, "Owner" + i, "owner" + i + "@gmail.com"));
+            final Item ownedItem = em.persist(Item.builder()
+                    .name("Item" + i)
+                    .description("Item")
+                    .available(true)
+                    .owner(itemOwner)
+                    .build());
+            for (int j = 0; j < 5; j++) {
+                history.add(em.persist(new Booking(null, LocalDateTime.now().plusDays(j), LocalDateTime.now().plusDays(j + 1),
+                        BookingStatus.WAITING, ownedItem, booker)));
+            }
+        }
+        em.flush();
+        em.clear();
+        final Statistics statistics = em.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        final List<BookingDtoWithEntities> bookings = new ArrayList<>(bookingRepository.findAllByBookerId(booker.getId(),
+                BookingState.ALL, LocalDateTime.now(), Pageable.unpaged()));
+        bookings.addAll(bookingRepository.findAllByBookerIdAfter(booker.getId(), BookingState.ALL, LocalDateTime.now(),
+                new KeysetCursor(LocalDateTime.now().plusYears(100), Long.MAX_VALUE), 100));
+
+        assertEquals(102, bookings.size());
+        assertTrue(bookings.stream().allMatch(it -> it.getItem().getName() != null));
+        assertTrue(bookings.stream().allMatch(it -> booker.getId().equals(it.getBooker().getId())));
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        history.forEach(it -> em.remove(em.find(Booking.class, it.getId())));
+    }
+
+    @Test
+    void findVersionByIdAndParticipantId() {
+        em.flush();
+        BookingVersionRow row = bookingRepository.findVersionByIdAndParticipantId(booking.getId(), booker.getId()).orElseThrow();
+        assertEquals(0L, row.getVersion());
+        assertEquals(0L, row.getItemVersion());
+        assertTrue(bookingRepository.findVersionByIdAndParticipantId(booking.getId(), owner.getId()).isPresent());
+        assertTrue(bookingRepository.findVersionByIdAndParticipantId(booking.getId(), Long.MAX_VALUE).isEmpty());
+
+        booking.setStatus(BookingStatus.APPROVED);
+        item.setAvailable(false);
+        em.flush();
+        row = bookingRepository.findVersionByIdAndParticipantId(booking.getId(), owner.getId()).orElseThrow();
+        assertEquals(1L, row.getVersion());
+        assertEquals(1L, row.getItemVersion());
+    }
+
+    private static List<Long> ids(List<BookingDtoWithEntities> bookings) {
+        return bookings.stream().map(BookingDtoWithEntities::getId).collect(toList());
+    }
+
     private static Stream<Arguments> getPageable() {
         return Stream.of(
-                Arguments.of((Pageable) null),
-                Arguments.of(Pageable.unpaged())
+                Arguments.of(Pageable.unpaged()),
+                Arguments.of(new MyPageRequest(0, 10, Sort.by(Sort.Direction.DESC, "start", "id")))
         );
     }
 }
@@ -1,6 +1,5 @@
 package ru.practicum.shareit.booking;
 
-import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
 import java.time.LocalDateTime;
@@ -25,7 +24,9 @@ import ru.practicum.shareit.booking.service.BookingServiceImpl;
 import ru.practicum.shareit.exception.*;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.KeysetCursor;
 import ru.practicum.shareit.request.MyPageRequest;
+import ru.practicum.shareit.user.UserPrincipal;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
@@ -72,10 +73,9 @@ class BookingServiceTest {
 
     @Test
     void findBookingById() {
-        Mockito.when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
         Mockito.when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
 
-        BookingDtoWithEntities dto = bookingService.findBookingById(owner.getId(), booking.getId());
+        BookingDtoWithEntities dto = bookingService.findBookingById(new UserPrincipal(owner.getId()), booking.getId());
 
         assertEquals(booking.getId(), dto.getId());
         assertEquals(booking.getStart(), dto.getStart());
@@ -84,30 +84,16 @@ class BookingServiceTest {
         assertNotNull(dto.getItem().getId());
         assertNotNull(dto.getBooker());
 
-        Mockito.verify(userRepository, times(1)).findById(owner.getId());
         Mockito.verify(bookingRepository, times(1)).findById(booking.getId());
     }
 
-    @ParameterizedTest
-    @ValueSource(longs = {11, 12, 32, 999})
-    void findBookingByNotValidUserId(Long userId) {
-        UserNotFoundException exception = assertThrows(UserNotFoundException.class, () -> {
-            bookingService.findBookingById(userId, booking.getId());
-        });
-
-        String expectedMessage = String.format("Пользователь с id=%d не найден!", userId);
-        String actualMessage = exception.getMessage();
-
-        assertEquals(expectedMessage, actualMessage);
-    }
 
     @ParameterizedTest
     @ValueSource(longs = {11, 12, 32, 999})
     void findBookingByNotValidId(Long id) {
-        Mockito.when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
 
         BookingNotFoundException exception = assertThrows(BookingNotFoundException.class, () -> {
-            bookingService.findBookingById(owner.getId(), id);
+            bookingService.findBookingById(new UserPrincipal(owner.getId()), id);
         });
 
         String expectedMessage = String.format("Бронирование с id=%d не найдено!", id);
@@ -115,17 +101,15 @@ class BookingServiceTest {
 
         assertEquals(expectedMessage, actualMessage);
 
-        Mockito.verify(userRepository, times(1)).findById(owner.getId());
     }
 
     @ParameterizedTest
     @ValueSource(longs = {11, 12, 32, 999})
     void findBookingByOtherUserNotValidUserId(Long userId) {
-        Mockito.when(userRepository.findById(userId)).thenReturn(Optional.of(new User()));
         Mockito.when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
 
         UserNotFoundException exception = assertThrows(UserNotFoundException.class, () -> {
-            bookingService.findBookingById(userId, booking.getId());
+            bookingService.findBookingById(new UserPrincipal(userId), booking.getId());
         });
 
         String expectedMessage = String.format("Пользователь с id=%d не имеет прав на осуществление данного запроса!", userId);
@@ -133,30 +117,16 @@ class BookingServiceTest {
 
         assertEquals(expectedMessage, actualMessage);
 
-        Mockito.verify(userRepository, times(1)).findById(userId);
         Mockito.verify(bookingRepository, times(1)).findById(booking.getId());
     }
 
-    @ParameterizedTest
-    @ValueSource(longs = {11, 12, 32, 999})
-    void findAllBookingsByBookerNotValidUserId(Long userId) {
-        EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () -> {
-            bookingService.findAllByBookerId(userId, BookingState.ALL.name(), 0, 10);
-        });
-
-        String expectedMessage = String.format("Пользователь с id=%d не найден!", userId);
-        String actualMessage = exception.getMessage();
-
-        assertEquals(expectedMessage, actualMessage);
-    }
 
     @ParameterizedTest
     @ValueSource(strings = {" ", "", "PPS", "VENICE"})
     void findAllBookingsByBookerNotValidBookingState(String state) {
-        Mockito.when(userRepository.findById(booker.getId())).thenReturn(Optional.of(booker));
 
         BookingStateExistsException exception = assertThrows(BookingStateExistsException.class, () -> {
-            bookingService.findAllByBookerId(booker.getId(), state, 0, 10);
+            bookingService.findAllByBookerId(new UserPrincipal(booker.getId()), state, 0, 10);
         });
 
         String expectedMessage = "Unknown state: UNSUPPORTED_STATUS";
@@ -164,30 +134,16 @@ class BookingServiceTest {
 
         assertEquals(expectedMessage, actualMessage);
 
-        Mockito.verify(userRepository, times(1)).findById(booker.getId());
     }
 
-    @ParameterizedTest
-    @ValueSource(longs = {11, 12, 32, 999})
-    void findAllBookingsByItemOwnerNotValidUserId(Long userId) {
-        EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () -> {
-            bookingService.findAllByItemOwnerId(userId, BookingState.ALL.name(), 0, 10);
-        });
-
-        String expectedMessage = String.format("Пользователь с id=%d не найден!", userId);
-        String actualMessage = exception.getMessage();
-
-        assertEquals(expectedMessage, actualMessage);
-    }
 
     @Test
     void createBooking() {
-        Mockito.when(userRepository.findById(booker.getId())).thenReturn(Optional.of(booker));
         Mockito.when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
         Mockito.when(bookingRepository.save(Mockito.any())).thenReturn(booking);
 
         BookingDto dto = BookingMapper.mapToBookingDtoWithIds(booking);
-        BookingDtoWithEntities savedDto = bookingService.createBooking(dto.getBookerId(), dto);
+        BookingDtoWithEntities savedDto = bookingService.createBooking(new UserPrincipal(dto.getBookerId()), dto);
 
         assertEquals(dto.getId(), savedDto.getId());
         assertEquals(dto.getStart(), savedDto.getStart());
@@ -195,19 +151,19 @@ class BookingServiceTest {
         assertNotNull(savedDto.getItem());
         assertNotNull(savedDto.getBooker());
 
-        Mockito.verify(userRepository, times(1)).findById(booker.getId());
+        Mockito.verify(userRepository, times(1)).getReferenceById(booker.getId());
+        Mockito.verify(userRepository, Mockito.never()).findById(Mockito.anyLong());
         Mockito.verify(itemRepository, times(1)).findById(item.getId());
         Mockito.verify(bookingRepository, times(1)).save(Mockito.any());
     }
 
     @Test
     void createBookingByOwner() {
-        Mockito.when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
         Mockito.when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
 
         UserNotFoundException exception = assertThrows(UserNotFoundException.class, () -> {
             BookingDto dto = BookingMapper.mapToBookingDtoWithIds(booking);
-            bookingService.createBooking(owner.getId(), dto);
+            bookingService.createBooking(new UserPrincipal(owner.getId()), dto);
         });
 
         String expectedMessage = String.format("Пользователь с userId=%d является владельцем данной вещи!", owner.getId());
@@ -215,19 +171,17 @@ class BookingServiceTest {
 
         assertEquals(expectedMessage, actualMessage);
 
-        Mockito.verify(userRepository, times(1)).findById(owner.getId());
         Mockito.verify(itemRepository, times(1)).findById(item.getId());
     }
 
     @Test
     void createBookingByNotValidAvailable() {
         item.setAvailable(false);
-        Mockito.when(userRepository.findById(booker.getId())).thenReturn(Optional.of(booker));
         Mockito.when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
 
         BookingStatusException exception = assertThrows(BookingStatusException.class, () -> {
             BookingDto dto = BookingMapper.mapToBookingDtoWithIds(booking);
-            bookingService.createBooking(booker.getId(), dto);
+            bookingService.createBooking(new UserPrincipal(booker.getId()), dto);
         });
 
         String expectedMessage = String.format("Вещь available=%b, бронирование отклонено!", item.getAvailable());
@@ -235,30 +189,16 @@ class BookingServiceTest {
 
         assertEquals(expectedMessage, actualMessage);
 
-        Mockito.verify(userRepository, times(1)).findById(booker.getId());
         Mockito.verify(itemRepository, times(1)).findById(item.getId());
     }
 
-    @Test
-    void createBookingByNotValidUserId() {
-        EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () -> {
-            BookingDto dto = BookingMapper.mapToBookingDtoWithIds(booking);
-            bookingService.createBooking(booker.getId(), dto);
-        });
-
-        String expectedMessage = String.format("Пользователь с id=%d не найден!", booker.getId());
-        String actualMessage = exception.getMessage();
-
-        assertEquals(expectedMessage, actualMessage);
-    }
 
     @Test
     void createBookingByNotValidItemId() {
-        Mockito.when(userRepository.findById(booker.getId())).thenReturn(Optional.of(booker));
 
         ItemNotFoundException exception = assertThrows(ItemNotFoundException.class, () -> {
             BookingDto dto = BookingMapper.mapToBookingDtoWithIds(booking);
-            bookingService.createBooking(dto.getBookerId(), dto);
+            bookingService.createBooking(new UserPrincipal(dto.getBookerId()), dto);
         });
 
         String expectedMessage = String.format("Вещь с id=%d не найдена!", item.getId());
@@ -266,17 +206,14 @@ class BookingServiceTest {
 
         assertEquals(expectedMessage, actualMessage);
 
-        Mockito.verify(userRepository, times(1)).findById(booker.getId());
     }
 
     @ParameterizedTest
     @ValueSource(booleans = {false, true})
     void updateBooking(Boolean approved) {
-        Mockito.when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
-        Mockito.when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
         Mockito.when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
 
-        BookingDtoWithEntities savedBooking = bookingService.updateBooking(owner.getId(), booking.getId(), approved);
+        BookingDtoWithEntities savedBooking = bookingService.updateBooking(new UserPrincipal(owner.getId()), booking.getId(), approved);
 
         assertEquals(booking.getId(), savedBooking.getId());
         assertEquals(booking.getStart(), savedBooking.getStart());
@@ -288,32 +225,17 @@ class BookingServiceTest {
             assertEquals(BookingStatus.REJECTED, savedBooking.getStatus());
         }
 
-        Mockito.verify(userRepository, times(1)).findById(owner.getId());
-        Mockito.verify(itemRepository, times(1)).findById(item.getId());
+        Mockito.verify(itemRepository, Mockito.never()).findById(Mockito.anyLong());
         Mockito.verify(bookingRepository, times(1)).findById(booking.getId());
     }
 
-    @ParameterizedTest
-    @ValueSource(longs = {11, 12, 32, 999})
-    void updateBookingByNotValidUserId(Long userId) {
-        EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () -> {
-            bookingService.updateBooking(userId, booking.getId(), false);
-        });
-
-        String expectedMessage = String.format("Пользователь с id=%d не найден!", userId);
-        String actualMessage = exception.getMessage();
-
-        assertEquals(expectedMessage, actualMessage);
-    }
 
     @Test
     void updateBookingByBooker() {
-        Mockito.when(userRepository.findById(booker.getId())).thenReturn(Optional.of(booker));
-        Mockito.when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
         Mockito.when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
 
         UserNotFoundException exception = assertThrows(UserNotFoundException.class, () -> {
-            bookingService.updateBooking(booker.getId(), booking.getId(), false);
+            bookingService.updateBooking(new UserPrincipal(booker.getId()), booking.getId(), false);
         });
 
         String expectedMessage = String.format("Пользователь с userId=%d не является владельцем данной вещи!", booker.getId());
@@ -321,35 +243,15 @@ class BookingServiceTest {
 
         assertEquals(expectedMessage, actualMessage);
 
-        Mockito.verify(userRepository, times(1)).findById(booker.getId());
-        Mockito.verify(itemRepository, times(1)).findById(item.getId());
-        Mockito.verify(bookingRepository, times(1)).findById(booking.getId());
-    }
-
-    @Test
-    void updateBookingByNotValidItemId() {
-        Mockito.when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
-        Mockito.when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
-
-        EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () -> {
-            bookingService.updateBooking(owner.getId(), booking.getId(), false);
-        });
-
-        String expectedMessage = String.format("Вещь с id=%d не найдена!", item.getId());
-        String actualMessage = exception.getMessage();
-
-        assertEquals(expectedMessage, actualMessage);
-
-        Mockito.verify(userRepository, times(1)).findById(owner.getId());
+        Mockito.verify(itemRepository, Mockito.never()).findById(Mockito.anyLong());
         Mockito.verify(bookingRepository, times(1)).findById(booking.getId());
     }
 
     @Test
     void updateBookingByNotValidId() {
-        Mockito.when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
 
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () -> {
-            bookingService.updateBooking(owner.getId(), booking.getId(), false);
+            bookingService.updateBooking(new UserPrincipal(owner.getId()), booking.getId(), false);
         });
 
         String expectedMessage = String.format("Бронирование с id=%d не найдено!", booking.getId());
@@ -357,38 +259,23 @@ class BookingServiceTest {
 
         assertEquals(expectedMessage, actualMessage);
 
-        Mockito.verify(userRepository, times(1)).findById(owner.getId());
     }
 
     @Test
     void deleteBookingById() {
-        Mockito.when(userRepository.findById(booker.getId())).thenReturn(Optional.of(booker));
         Mockito.when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
 
-        bookingService.deleteBookingById(booker.getId(), booking.getId());
+        bookingService.deleteBookingById(new UserPrincipal(booker.getId()), booking.getId());
 
-        Mockito.verify(userRepository, times(1)).findById(booker.getId());
         Mockito.verify(bookingRepository, times(1)).findById(booking.getId());
     }
 
-    @Test
-    void deleteBookingByNotValidUserId() {
-        EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () -> {
-            bookingService.deleteBookingById(booker.getId(), booking.getId());
-        });
-
-        String expectedMessage = String.format("Пользователь с id=%d не найден!", booker.getId());
-        String actualMessage = exception.getMessage();
-
-        assertEquals(expectedMessage, actualMessage);
-    }
 
     @Test
     void deleteBookingByNotValidId() {
-        Mockito.when(userRepository.findById(booker.getId())).thenReturn(Optional.of(booker));
 
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () -> {
-            bookingService.deleteBookingById(booker.getId(), booking.getId());
+            bookingService.deleteBookingById(new UserPrincipal(booker.getId()), booking.getId());
         });
 
         String expectedMessage = String.format("Бронирование с id=%d не найдено!", booking.getId());
@@ -396,17 +283,15 @@ class BookingServiceTest {
 
         assertEquals(expectedMessage, actualMessage);
 
-        Mockito.verify(userRepository, times(1)).findById(booker.getId());
     }
 
     @ParameterizedTest
     @ValueSource(longs = {11, 12, 32, 999})
     void deleteBookingByOtherUserNotValidUserId(Long userId) {
-        Mockito.when(userRepository.findById(userId)).thenReturn(Optional.of(new User()));
         Mockito.when(bookingRepository.findById(booking.getId())).thenReturn(Optional.of(booking));
 
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () -> {
-            bookingService.deleteBookingById(userId, booking.getId());
+            bookingService.deleteBookingById(new UserPrincipal(userId), booking.getId());
         });
 
         String expectedMessage = String.format("Пользователь с id=%d не имеет права на удаление!", userId);
@@ -414,53 +299,18 @@ class BookingServiceTest {
 
         assertEquals(expectedMessage, actualMessage);
 
-        Mockito.verify(userRepository, times(1)).findById(userId);
         Mockito.verify(bookingRepository, times(1)).findById(booking.getId());
     }
 
     @ParameterizedTest
     @EnumSource(BookingState.class)
     void findAllByBookerId(BookingState state) {
-        MyPageRequest pageRequest = new MyPageRequest(0, 10, Sort.by(Sort.Direction.DESC, "start"));
-        LocalDateTime currentTime = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
-
-        Mockito.when(userRepository.findById(booker.getId())).thenReturn(Optional.of(booker));
-        switch (state) {
-            case CURRENT: {
-                Mockito.when(bookingRepository.findAllByBookerIdAndStartIsBeforeAndEndIsAfter(booker.getId(), currentTime,
-                        currentTime, pageRequest)).thenReturn(List.of(booking));
-                break;
-            }
-            case PAST: {
-                booking.setEnd(LocalDateTime.now().minusDays(5));
-                Mockito.when(bookingRepository.findAllByBookerIdAndEndIsBefore(booker.getId(), currentTime,
-                        pageRequest)).thenReturn(List.of(booking));
-                break;
-            }
-            case FUTURE: {
-                booking.setStart(LocalDateTime.now().plusDays(5));
-                Mockito.when(bookingRepository.findAllByBookerIdAndStartIsAfter(booker.getId(), currentTime,
-                        pageRequest)).thenReturn(List.of(booking));
-                break;
-            }
-            case WAITING: {
-                Mockito.when(bookingRepository.findAllByBookerIdAndStatusEquals(booker.getId(), booking.getStatus(),
-                        pageRequest)).thenReturn(List.of(booking));
-                break;
-            }
-            case REJECTED: {
-                booking.setStatus(BookingStatus.REJECTED);
-                Mockito.when(bookingRepository.findAllByBookerIdAndStatusEquals(booker.getId(), booking.getStatus(),
-                        pageRequest)).thenReturn(List.of(booking));
-                break;
-            }
-            case ALL: {
-                Mockito.when(bookingRepository.findAllByBookerId(booker.getId(), pageRequest)).thenReturn(List.of(booking));
-                break;
-            }
-        }
+        MyPageRequest pageRequest = new MyPageRequest(0, 10, Sort.by(Sort.Direction.DESC, "start", "id"));
 
-        List<BookingDtoWithEntities> bookings = bookingService.findAllByBookerId(booker.getId(), state.name(), 0, 10);
+        Mockito.when(bookingRepository.findAllByBookerId(Mockito.eq(booker.getId()), Mockito.eq(state), Mockito.any(),
+                Mockito.eq(pageRequest))).thenReturn(List.of(BookingMapper.mapToBookingDtoWithEntities(booking)));
+
+        List<BookingDtoWithEntities> bookings = bookingService.findAllByBookerId(new UserPrincipal(booker.getId()), state.name(), 0, 10);
 
         assertEquals(1, bookings.size());
     }
@@ -468,47 +318,52 @@ class BookingServiceTest {
     @ParameterizedTest
     @EnumSource(BookingState.class)
     void findAllByItemOwnerId(BookingState state) {
-        MyPageRequest pageRequest = new MyPageRequest(0, 10, Sort.by(Sort.Direction.DESC, "start"));
-        LocalDateTime currentTime = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
-
-        Mockito.when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
-        switch (state) {
-            case CURRENT: {
-                Mockito.when(bookingRepository.findAllByItemOwnerIdAndStartIsBeforeAndEndIsAfter(owner.getId(), currentTime,
-                        currentTime, pageRequest)).thenReturn(List.of(booking));
-                break;
-            }
-            case PAST: {
-                booking.setEnd(currentTime.minusDays(5));
-                Mockito.when(bookingRepository.findAllByItemOwnerIdAndEndIsBefore(owner.getId(), currentTime,
-                        pageRequest)).thenReturn(List.of(booking));
-                break;
-            }
-            case FUTURE: {
-                booking.setStart(currentTime.plusDays(5));
-                Mockito.when(bookingRepository.findAllByItemOwnerIdAndStartIsAfter(owner.getId(), currentTime,
-                        pageRequest)).thenReturn(List.of(booking));
-                break;
-            }
-            case WAITING: {
-                Mockito.when(bookingRepository.findAllByItemOwnerIdAndStatusEquals(owner.getId(), booking.getStatus(),
-                        pageRequest)).thenReturn(List.of(booking));
-                break;
-            }
-            case REJECTED: {
-                booking.setStatus(BookingStatus.REJECTED);
-                Mockito.when(bookingRepository.findAllByItemOwnerIdAndStatusEquals(owner.getId(), booking.getStatus(),
-                        pageRequest)).thenReturn(List.of(booking));
-                break;
-            }
-            case ALL: {
-                Mockito.when(bookingRepository.findAllByItemOwnerId(owner.getId(), pageRequest)).thenReturn(List.of(booking));
-                break;
-            }
-        }
+        MyPageRequest pageRequest = new MyPageRequest(0, 10, Sort.by(Sort.Direction.DESC, "start", "id"));
+
+        Mockito.when(bookingRepository.findAllByItemOwnerId(Mockito.eq(owner.getId()), Mockito.eq(state), Mockito.any(),
+                Mockito.eq(pageRequest))).thenReturn(List.of(BookingMapper.mapToBookingDtoWithEntities(booking)));
+
+        List<BookingDtoWithEntities> bookings = bookingService.findAllByItemOwnerId(new UserPrincipal(owner.getId()), state.name(), 0, 10);
+
+        assertEquals(1, bookings.size());
+    }
+
+    @ParameterizedTest
+    @EnumSource(BookingState.class)
+    void findAllByBookerIdAfter(BookingState state) {
+        KeysetCursor after = new KeysetCursor(LocalDateTime.now().plusDays(1), 3L);
+        Mockito.when(bookingRepository.findAllByBookerIdAfter(Mockito.eq(booker.getId()), Mockito.eq(state),
+                Mockito.any(), Mockito.eq(after), Mockito.eq(10))).thenReturn(List.of(BookingMapper.mapToBookingDtoWithEntities(booking)));
 
-        List<BookingDtoWithEntities> bookings = bookingService.findAllByItemOwnerId(owner.getId(), state.name(), 0, 10);
+        List<BookingDtoWithEntities> bookings = bookingService.findAllByBookerIdAfter(new UserPrincipal(booker.getId()), state.name(),
+                after.encode(), 10);
 
         assertEquals(1, bookings.size());
+        assertEquals(booking.getId(), bookings.get(0).getId());
+    }
+
+    @ParameterizedTest
+    @EnumSource(BookingState.class)
+    void findAllByItemOwnerIdAfter(BookingState state) {
+        KeysetCursor after = new KeysetCursor(LocalDateTime.now().plusDays(1), 3L);
+        Mockito.when(bookingRepository.findAllByItemOwnerIdAfter(Mockito.eq(owner.getId()), Mockito.eq(state),
+                Mockito.any(), Mockito.eq(after), Mockito.eq(10))).thenReturn(List.of(BookingMapper.mapToBookingDtoWithEntities(booking)));
+
+        List<BookingDtoWithEntities> bookings = bookingService.findAllByItemOwnerIdAfter(new UserPrincipal(owner.getId()), state.name(),
+                after.encode(), 10);
+
+        assertEquals(1, bookings.size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "abc", "MjAyMi0wMS0wMQ"})
+    void findAllByBookerIdAfterNotValidCursor(String after) {
+
+        ValidationException exception = assertThrows(ValidationException.class, () -> {
+            bookingService.findAllByBookerIdAfter(new UserPrincipal(booker.getId()), "ALL", after, 10);
+        });
+
+        assertEquals(String.format("Некорректный курсор after=%s!", after), exception.getMessage());
+        Mockito.verifyNoInteractions(bookingRepository);
     }
 }
@@ -12,6 +12,7 @@ import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -70,4 +71,14 @@ public class CommentRepositoryTest {
         assertNotNull(comment.getId());
         assertEquals(1, comments.size());
     }
+
+    @Test
+    void findAllByItemIdIn() {
+        List<Comment> comments = commentRepository.findAllByItemIdIn(List.of(item.getId(), Long.MAX_VALUE));
+
+        assertNotNull(item.getId());
+        assertNotNull(comment.getId());
+        assertEquals(1, comments.size());
+        assertEquals(comment.getId(), comments.get(0).getId());
+    }
 }
@@ -7,6 +7,7 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import org.mockito.Mockito;
 import ru.practicum.shareit.exception.ItemNotFoundException;
+import ru.practicum.shareit.user.UserPrincipal;
 import ru.practicum.shareit.exception.UserNotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.controller.ItemController;
@@ -20,6 +21,7 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -27,6 +29,8 @@ import org.junit.jupiter.api.DisplayName;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
@@ -49,9 +53,12 @@ class ItemControllerTest {
     private MockMvc mockMvc;
     @MockBean
     private ItemService itemService;
+    @MockBean
+    private UserExistenceCache userExistenceCache;
 
     @BeforeEach
     void init() {
+        Mockito.when(userExistenceCache.exists(Mockito.anyLong())).thenReturn(true);
         owner = new UserDto(1L, "John", "john@gmail.com");
         booker = new UserDto(2L, "Fred", "fred@gmail.com");
         item = Item.builder()
@@ -83,7 +90,7 @@ class ItemControllerTest {
     @Test
     @DisplayName("Send GET request /items/{id}")
     void getItemById() throws Exception {
-        Mockito.when(itemService.getItemById(owner.getId(), item.getId())).thenReturn(dto);
+        Mockito.when(itemService.getItemById(new UserPrincipal(owner.getId()), item.getId())).thenReturn(dto);
 
         this.mockMvc.perform(MockMvcRequestBuilders
                         .get("/items/{id}", item.getId())
@@ -93,13 +100,32 @@ class ItemControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.id").isNumber());
 
 
-        Mockito.verify(itemService, Mockito.times(1)).getItemById(owner.getId(), item.getId());
+        Mockito.verify(itemService, Mockito.times(1)).getItemById(new UserPrincipal(owner.getId()), item.getId());
+    }
+
+    @Test
+    @DisplayName("Send GET request /items/search")
+    void searchItems() throws Exception {
+        PageRequest pageable = PageRequest.of(0, 1);
+        Mockito.when(itemService.searchItem("saw", pageable)).thenReturn(new SliceImpl<>(List.of(dto), pageable, true));
+
+        this.mockMvc.perform(MockMvcRequestBuilders
+                        .get("/items/search")
+                        .param("text", "saw")
+                        .param("page", "0")
+                        .param("size", "1")
+                        .header("X-Sharer-User-Id", owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(ItemController.HAS_NEXT_HEADER, "true"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(dto.getId()));
+
+        Mockito.verify(itemService, Mockito.times(1)).searchItem("saw", pageable);
     }
 
     @Test
     @DisplayName("Send GET request /items/{id}")
     void getItemByNotValidId() throws Exception {
-        Mockito.when(itemService.getItemById(owner.getId(), item.getId())).thenThrow(ItemNotFoundException.class);
+        Mockito.when(itemService.getItemById(new UserPrincipal(owner.getId()), item.getId())).thenThrow(ItemNotFoundException.class);
 
         this.mockMvc.perform(MockMvcRequestBuilders
                         .get("/items/{id}", item.getId())
@@ -107,13 +133,72 @@ class ItemControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
 
-        Mockito.verify(itemService, Mockito.times(1)).getItemById(owner.getId(), item.getId());
+        Mockito.verify(itemService, Mockito.times(1)).getItemById(new UserPrincipal(owner.getId()), item.getId());
+    }
+
+    @Test
+    @DisplayName("Send conditional GET request /items/{id}")
+    void getItemByIdNotModified() throws Exception {
+        Mockito.when(itemService.getItemETag(new UserPrincipal(booker.getId()), item.getId())).thenReturn("item-1-0-0");
+
+        this.mockMvc.perform(MockMvcRequestBuilders
+                        .get("/items/{id}", item.getId())
+                        .header("X-Sharer-User-Id", booker.getId())
+                        .header("If-None-Match", "\"item-1-0-0\"")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"item-1-0-0\""));
+
+        Mockito.when(itemService.getItemById(new UserPrincipal(booker.getId()), item.getId())).thenReturn(dto);
+        this.mockMvc.perform(MockMvcRequestBuilders
+                        .get("/items/{id}", item.getId())
+                        .header("X-Sharer-User-Id", booker.getId())
+                        .header("If-None-Match", "\"item-1-0-1\"")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"item-1-0-0\""))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.id").isNumber());
+
+        Mockito.verify(itemService, Mockito.times(1)).getItemById(new UserPrincipal(booker.getId()), item.getId());
+    }
+
+    @Test
+    @DisplayName("Send GET request /items/{id} by unknown user")
+    void getItemByNotValidUserId() throws Exception {
+        Mockito.when(userExistenceCache.exists(99L)).thenReturn(false);
+
+        this.mockMvc.perform(MockMvcRequestBuilders
+                        .get("/items/{id}", item.getId())
+                        .header("X-Sharer-User-Id", 99L)
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+
+        Mockito.verify(userExistenceCache, Mockito.times(1)).exists(99L);
+        Mockito.verifyNoInteractions(itemService);
+    }
+
+    @Test
+    @DisplayName("Send GET request /items/{id} with malformed user header")
+    void getItemByMalformedUserId() throws Exception {
+        this.mockMvc.perform(MockMvcRequestBuilders
+                        .get("/items/{id}", item.getId())
+                        .header("X-Sharer-User-Id", "john")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        this.mockMvc.perform(MockMvcRequestBuilders
+                        .get("/items/{id}", item.getId())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        Mockito.verify(userExistenceCache, Mockito.never()).exists(Mockito.anyLong());
+        Mockito.verifyNoInteractions(itemService);
     }
 
     @Test
     @DisplayName("Send GET request /items")
     void getAllItems() throws Exception {
-        Mockito.when(itemService.getItems(owner.getId(), 0, 10)).thenReturn(List.of(dto));
+        Mockito.when(itemService.getItems(new UserPrincipal(owner.getId()), 0, 10)).thenReturn(List.of(dto));
 
         this.mockMvc.perform(MockMvcRequestBuilders
                         .get("/items")
@@ -122,14 +207,14 @@ class ItemControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").isNumber());
 
-        Mockito.verify(itemService, Mockito.times(1)).getItems(owner.getId(), 0, 10);
+        Mockito.verify(itemService, Mockito.times(1)).getItems(new UserPrincipal(owner.getId()), 0, 10);
     }
 
     @Test
     @DisplayName("Send POST request /items")
     void addItem() throws Exception {
         dto = ItemMapper.mapToItemDto(item, new ItemRequest());
-        Mockito.when(itemService.addNewItem(Mockito.anyLong(), Mockito.any())).thenReturn(dto);
+        Mockito.when(itemService.addNewItem(Mockito.any(UserPrincipal.class), Mockito.any())).thenReturn(dto);
 
         this.mockMvc.perform(MockMvcRequestBuilders
                         .post("/items")
@@ -138,14 +223,14 @@ class ItemControllerTest {
                         .content(gson.toJson(dto)))
                 .andExpect(status().isOk());
 
-        Mockito.verify(itemService, Mockito.times(1)).addNewItem(Mockito.anyLong(), Mockito.any());
+        Mockito.verify(itemService, Mockito.times(1)).addNewItem(Mockito.any(UserPrincipal.class), Mockito.any());
     }
 
     @Test
     @DisplayName("Send POST request /items/{id}/comment")
     void addComment() throws Exception {
         CommentDto commentDto = CommentMapper.mapToCommentDto(comment);
-        Mockito.when(itemService.addComment(Mockito.any(), Mockito.anyLong(), Mockito.anyLong())).thenReturn(commentInfoDto);
+        Mockito.when(itemService.addComment(Mockito.any(), Mockito.any(UserPrincipal.class), Mockito.anyLong())).thenReturn(commentInfoDto);
 
         this.mockMvc.perform(MockMvcRequestBuilders
                         .post("/items/{id}/comment", item.getId())
@@ -154,14 +239,14 @@ class ItemControllerTest {
                         .content(gson.toJson(commentDto)))
                 .andExpect(status().isOk());
 
-        Mockito.verify(itemService, Mockito.times(1)).addComment(Mockito.any(), Mockito.anyLong(), Mockito.anyLong());
+        Mockito.verify(itemService, Mockito.times(1)).addComment(Mockito.any(), Mockito.any(UserPrincipal.class), Mockito.anyLong());
     }
 
     @Test
     @DisplayName("Send POST request /items/{id}/comment")
     void addCommentByNotBooker() throws Exception {
         CommentDto commentDto = CommentMapper.mapToCommentDto(comment);
-        Mockito.when(itemService.addComment(Mockito.any(), Mockito.anyLong(), Mockito.anyLong())).thenThrow(ValidationException.class);
+        Mockito.when(itemService.addComment(Mockito.any(), Mockito.any(UserPrincipal.class), Mockito.anyLong())).thenThrow(ValidationException.class);
 
         this.mockMvc.perform(MockMvcRequestBuilders
                         .post("/items/{id}/comment", item.getId())
@@ -170,7 +255,7 @@ class ItemControllerTest {
                         .content(gson.toJson(commentDto)))
                 .andExpect(status().isBadRequest());
 
-        Mockito.verify(itemService, Mockito.times(1)).addComment(Mockito.any(), Mockito.anyLong(), Mockito.anyLong());
+        Mockito.verify(itemService, Mockito.times(1)).addComment(Mockito.any(), Mockito.any(UserPrincipal.class), Mockito.anyLong());
     }
 
     @Test
@@ -179,7 +264,7 @@ class ItemControllerTest {
         dto.setName("Saw Siemens");
         dto.setAvailable(false);
         dto.setDescription("Very good saw!");
-        Mockito.when(itemService.updateItem(Mockito.any(), Mockito.anyLong(), Mockito.anyLong())).thenReturn(dto);
+        Mockito.when(itemService.updateItem(Mockito.any(), Mockito.any(UserPrincipal.class), Mockito.anyLong())).thenReturn(dto);
 
         this.mockMvc.perform(MockMvcRequestBuilders
                         .patch("/items/{id}", item.getId())
@@ -191,13 +276,13 @@ class ItemControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.available").value(false))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.description").value("Very good saw!"));
 
-        Mockito.verify(itemService, Mockito.times(1)).updateItem(Mockito.any(), Mockito.anyLong(), Mockito.anyLong());
+        Mockito.verify(itemService, Mockito.times(1)).updateItem(Mockito.any(), Mockito.any(UserPrincipal.class), Mockito.anyLong());
     }
 
     @Test
     @DisplayName("Send PATCH request /items/{id}")
     void updateItemByNotOwner() throws Exception {
-        Mockito.when(itemService.updateItem(Mockito.any(), Mockito.anyLong(), Mockito.anyLong())).thenThrow(UserNotFoundException.class);
+        Mockito.when(itemService.updateItem(Mockito.any(), Mockito.any(UserPrincipal.class), Mockito.anyLong())).thenThrow(UserNotFoundException.class);
 
         this.mockMvc.perform(MockMvcRequestBuilders
                         .patch("/items/{id}", item.getId())
@@ -206,7 +291,7 @@ class ItemControllerTest {
                         .content(gson.toJson(dto)))
                 .andExpect(status().isNotFound());
 
-        Mockito.verify(itemService, Mockito.times(1)).updateItem(Mockito.any(), Mockito.anyLong(), Mockito.anyLong());
+        Mockito.verify(itemService, Mockito.times(1)).updateItem(Mockito.any(), Mockito.any(UserPrincipal.class), Mockito.anyLong());
     }
 
     @Test
@@ -218,6 +303,6 @@ class ItemControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
 
-        Mockito.verify(itemService, Mockito.times(1)).deleteItem(owner.getId(), item.getId());
+        Mockito.verify(itemService, Mockito.times(1)).deleteItem(new UserPrincipal(owner.getId()), item.getId());
     }
 }
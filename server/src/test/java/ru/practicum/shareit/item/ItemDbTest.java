@@ -14,7 +14,11 @@ import org.springframework.transaction.annotation.Transactional;
 import javax.persistence.TypedQuery;
 import javax.persistence.EntityManager;
 
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.exception.ItemNotFoundException;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.user.UserPrincipal;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.service.RequestService;
@@ -28,6 +32,7 @@ import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 
@@ -74,7 +79,7 @@ public class ItemDbTest {
                 .setParameter("id", dto.getId())
                 .getSingleResult();
 
-        dto = itemService.getItemById(owner.getId(), id);
+        dto = itemService.getItemById(new UserPrincipal(owner.getId()), id);
 
         assertThat(dto.getId()).isNotNull();
         assertThat(dto.getName()).isEqualTo(item.getName());
@@ -90,7 +95,7 @@ public class ItemDbTest {
                 .setParameter("id", owner.getId())
                 .getResultList();
 
-        List<ItemDto> items = itemService.getItems(owner.getId(), 0, 10);
+        List<ItemDto> items = itemService.getItems(new UserPrincipal(owner.getId()), 0, 10);
 
         assertThat(result.size()).isEqualTo(items.size());
     }
@@ -101,13 +106,13 @@ public class ItemDbTest {
         Pageable pageable = PageRequest.of(0, 10);
         String text = "Saw";
         TypedQuery<Item> query = em.createQuery("select i from Item as i where i.available = true and " +
-                "lower(i.name) like lower(concat('%', :text, '%')) " +
-                "or lower(i.description) like lower(concat('%', :text, '%'))", Item.class);
+                "(lower(i.name) like lower(concat('%', :text, '%')) " +
+                "or lower(i.description) like lower(concat('%', :text, '%')))", Item.class);
         List<Item> result = query
                 .setParameter("text", text)
                 .getResultList();
 
-        List<Item> items = itemService.searchItem(text, pageable);
+        List<ItemDto> items = itemService.searchItem(text, pageable).getContent();
 
         assertThat(result.size()).isEqualTo(items.size());
     }
@@ -145,7 +150,7 @@ public class ItemDbTest {
                 .request(item.getRequest())
                 .build();
         dto = ItemMapper.mapToItemDto(newItem, request);
-        dto = itemService.updateItem(dto, owner.getId(), dto.getId());
+        dto = itemService.updateItem(dto, new UserPrincipal(owner.getId()), dto.getId());
 
         assertThat(newItem.getId()).isNotNull();
         assertThat(newItem.getName()).isEqualTo(dto.getName());
@@ -163,9 +168,9 @@ public class ItemDbTest {
                 .setParameter("id", dto.getId())
                 .getSingleResult();
 
-        itemService.deleteItem(owner.getId(), dto.getId());
+        itemService.deleteItem(new UserPrincipal(owner.getId()), dto.getId());
         ItemNotFoundException exception = assertThrows(ItemNotFoundException.class, () -> {
-            itemService.deleteItem(owner.getId(), id);
+            itemService.deleteItem(new UserPrincipal(owner.getId()), id);
         });
 
         String expectedMessage = String.format("Вещь с id=%d не найдена!", id);
@@ -174,12 +179,32 @@ public class ItemDbTest {
         assertEquals(expectedMessage, actualMessage);
     }
 
+    @Test
+    void getItemETagAfterCommentAndAuthorRename() {
+        final ItemDto dto = makeItem(item);
+        final UserDto booker = userService.saveUser(new UserDto(null, "Eric", "eric@yahoo.com"));
+        final UserPrincipal principal = new UserPrincipal(booker.getId());
+        em.persist(new Booking(null, LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1),
+                BookingStatus.APPROVED, em.find(Item.class, dto.getId()), em.find(User.class, booker.getId())));
+        em.flush();
+        final String created = itemService.getItemETag(principal, dto.getId());
+
+        itemService.addComment(new CommentDto(null, "Good saw"), principal, dto.getId());
+        em.flush();
+        final String commented = itemService.getItemETag(principal, dto.getId());
+        assertNotEquals(created, commented);
+
+        userService.updateUser(booker.getId(), new UserDto(null, "Erich", null));
+        em.flush();
+        assertNotEquals(commented, itemService.getItemETag(principal, dto.getId()));
+    }
+
     private ItemDto makeItem(Item item) {
         UserDto userDto = UserMapper.mapToUserDto(requestor);
         userDto = userService.saveUser(userDto);
 
         ItemRequestDto requestDto = ItemRequestMapper.mapToItemRequestDto(request);
-        requestDto = requestService.addNewRequest(userDto.getId(), requestDto);
+        requestDto = requestService.addNewRequest(new UserPrincipal(userDto.getId()), requestDto);
         request.setId(requestDto.getId());
 
         userDto = UserMapper.mapToUserDto(owner);
@@ -187,6 +212,6 @@ public class ItemDbTest {
         owner.setId(userDto.getId());
 
         ItemDto itemDto = ItemMapper.mapToItemDto(item, request);
-        return itemService.addNewItem(userDto.getId(), itemDto);
+        return itemService.addNewItem(new UserPrincipal(userDto.getId()), itemDto);
     }
 }
@@ -6,9 +6,13 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemVersionRow;
+import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
@@ -19,7 +23,10 @@ import java.util.List;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
 public class ItemRepositoryTest {
@@ -91,12 +98,72 @@ public class ItemRepositoryTest {
     @Test
     void search() {
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Item> items = itemRepository.search("Saw", pageable);
+        Slice<ItemDto> items = itemRepository.search("Saw", pageable);
 
         assertNotNull(owner.getId());
         assertNotNull(requestor.getId());
         assertNotNull(request.getId());
         assertNotNull(item.getId());
-        assertEquals(1, items.getTotalElements());
+        assertEquals(1, items.getNumberOfElements());
+        assertFalse(items.hasNext());
+        assertEquals(request.getId(), items.getContent().get(0).getRequestId());
+        assertEquals(item.getDescription(), items.getContent().get(0).getDescription());
+    }
+
+    @Test
+    void searchSkipsUnavailableItems() {
+        em.persist(Item.builder()
+                .name("Saw blade")
+                .description("Spare blade")
+                .available(false)
+                .owner(owner)
+                .build());
+        final Item withoutRequest = em.persist(Item.builder()
+                .name("Jigsaw")
+                .description("Cordless jigsaw")
+                .available(true)
+                .owner(owner)
+                .build());
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("id"));
+
+        Slice<ItemDto> items = itemRepository.search("Saw", pageable);
+
+        assertEquals(2, items.getNumberOfElements());
+        assertEquals(item.getId(), items.getContent().get(0).getId());
+        assertEquals(withoutRequest.getId(), items.getContent().get(1).getId());
+        assertNull(items.getContent().get(1).getRequestId());
+
+        items = itemRepository.search("Saw", PageRequest.of(0, 1, Sort.by("id")));
+        assertEquals(List.of(item.getId()), items.map(ItemDto::getId).getContent());
+        assertTrue(items.hasNext());
+        items = itemRepository.search("Saw", PageRequest.of(1, 1, Sort.by("id")));
+        assertEquals(List.of(withoutRequest.getId()), items.map(ItemDto::getId).getContent());
+        assertFalse(items.hasNext());
+    }
+
+    @Test
+    void findVersionById() {
+        em.flush();
+        ItemVersionRow row = itemRepository.findVersionById(item.getId()).orElseThrow();
+        assertEquals(owner.getId(), row.getOwnerId());
+        assertEquals(0L, row.getVersion());
+        assertEquals(0L, row.getAuthorsVersion());
+
+        final Comment comment = new Comment(null, "Good saw", LocalDateTime.now(), item, requestor);
+        em.persist(comment);
+        item.setDescription("Circular saw Bosch");
+        em.flush();
+        row = itemRepository.findVersionById(item.getId()).orElseThrow();
+        assertEquals(1L, row.getVersion());
+        assertEquals(0L, row.getAuthorsVersion());
+
+        requestor.setName("Frederick");
+        em.flush();
+        row = itemRepository.findVersionById(item.getId()).orElseThrow();
+        assertEquals(1L, row.getVersion());
+        assertEquals(1L, row.getAuthorsVersion());
+        assertTrue(itemRepository.findVersionById(Long.MAX_VALUE).isEmpty());
+
+        em.remove(comment);
     }
 }
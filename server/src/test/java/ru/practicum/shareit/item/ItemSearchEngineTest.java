@@ -0,0 +1,65 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSearchRow;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.PostgresItemSearchEngine;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemSearchEngineTest {
+    private final Pageable pageable = PageRequest.of(0, 10);
+    @Mock
+    private ItemRepository itemRepository;
+    @InjectMocks
+    private PostgresItemSearchEngine searchEngine;
+
+    @ParameterizedTest
+    @MethodSource("getQueries")
+    void searchBuildsPrefixQuery(String text, String query) {
+        ItemSearchRow row = Mockito.mock(ItemSearchRow.class);
+        Mockito.when(row.getId()).thenReturn(1L);
+        Mockito.when(itemRepository.fullTextSearch(query, pageable)).thenReturn(new SliceImpl<>(List.of(row)));
+
+        Slice<ItemDto> items = searchEngine.search(text, pageable);
+
+        assertEquals(1, items.getNumberOfElements());
+        assertEquals(1L, items.getContent().get(0).getId());
+    }
+
+    @Test
+    void searchWithoutWords() {
+        Slice<ItemDto> items = searchEngine.search("&|!", pageable);
+
+        assertEquals(0, items.getNumberOfElements());
+        assertFalse(items.hasNext());
+        Mockito.verifyNoInteractions(itemRepository);
+    }
+
+    private static Stream<Arguments> getQueries() {
+        return Stream.of(
+                Arguments.of("дРелЬ", "дрель:*"),
+                Arguments.of("оТверТ", "отверт:*"),
+                Arguments.of("аккУМУляторная  дрель", "аккумуляторная:* & дрель:*"),
+                Arguments.of("saw:* | drill", "saw:* & drill:*")
+        );
+    }
+}
@@ -5,6 +5,11 @@ import org.mockito.*;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.time.LocalDateTime;
 import java.util.stream.Stream;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -16,22 +21,22 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.ItemNotFoundException;
 import ru.practicum.shareit.exception.SecurityException;
-import ru.practicum.shareit.exception.UserNotFoundException;
 import ru.practicum.shareit.item.dto.CommentWithInfoDto;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.UserPrincipal;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.dto.ItemDto;
@@ -68,6 +73,8 @@ class ItemServiceTest {
     private CommentRepository commentRepository;
     @Mock
     private ItemRequestRepository requestRepository;
+    @Mock
+    private ItemSearchEngine itemSearchEngine;
     @InjectMocks
     private ItemServiceImpl itemService;
 
@@ -99,12 +106,11 @@ class ItemServiceTest {
     @ParameterizedTest
     @MethodSource("getBookings")
     void getItemById(Booking lastBooking, Booking nextBooking) {
-        Mockito.when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
         Mockito.when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
-        Mockito.when(bookingRepository.findAllByItemOwnerId(owner.getId(), Sort.by(Sort.Direction.DESC, "start")))
+        Mockito.when(bookingRepository.findLastAndNextApprovedBookings(Mockito.eq(Set.of(item.getId())), Mockito.any()))
                 .thenReturn(lastBooking == null || nextBooking == null ? List.of() : List.of(lastBooking, nextBooking));
 
-        ItemDto dto = itemService.getItemById(owner.getId(), item.getId());
+        ItemDto dto = itemService.getItemById(new UserPrincipal(owner.getId()), item.getId());
 
         assertEquals(item.getId(), dto.getId());
         assertEquals(item.getName(), dto.getName());
@@ -127,31 +133,74 @@ class ItemServiceTest {
             });
         }
 
-        Mockito.verify(userRepository, Mockito.times(1)).findById(owner.getId());
         Mockito.verify(itemRepository, Mockito.times(1)).findById(item.getId());
-        Mockito.verify(bookingRepository, Mockito.times(1)).findAllByItemOwnerId(owner.getId(), Sort.by(Sort.Direction.DESC, "start"));
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findLastAndNextApprovedBookings(Mockito.eq(Set.of(item.getId())), Mockito.any());
     }
 
-    @ParameterizedTest
-    @ValueSource(longs = {11, 12, 32, 999})
-    void getItemByNotValidUserId(Long userId) {
-        UserNotFoundException exception = assertThrows(UserNotFoundException.class, () -> {
-            itemService.getItemById(userId, item.getId());
-        });
+    @Test
+    void getItemByIdByNotOwner() {
+        Mockito.when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
 
-        String expectedMessage = String.format("Пользователь с id=%d не найден!", userId);
-        String actualMessage = exception.getMessage();
+        ItemDto dto = itemService.getItemById(new UserPrincipal(requestor.getId()), item.getId());
 
-        assertEquals(expectedMessage, actualMessage);
+        assertEquals(item.getId(), dto.getId());
+        assertNull(dto.getLastBooking());
+        assertNull(dto.getNextBooking());
+
+        Mockito.verify(bookingRepository, Mockito.never()).findLastAndNextApprovedBookings(Mockito.any(), Mockito.any());
+    }
+
+
+    /**
+     * Пока владелец загружает вещь, запрос не владельца ждёт ту же загрузку. Каждый получает свою
+     * копию, и бронирования, добавленные в ответ владельцу, не попадают в ответ не владельцу.
+     */
+    @Test
+    void concurrentGetItemByIdLoadsItemOnce() throws Exception {
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch loaded = new CountDownLatch(1);
+        Mockito.when(itemRepository.findById(item.getId())).thenAnswer(invocation -> {
+            loading.countDown();
+            assertTrue(loaded.await(5, TimeUnit.SECONDS));
+            return Optional.of(item);
+        });
+        Mockito.when(commentRepository.findAllByItemId(item.getId())).thenReturn(Set.of(comment));
+        Mockito.when(bookingRepository.findLastAndNextApprovedBookings(Mockito.eq(Set.of(item.getId())), Mockito.any()))
+                .thenReturn(List.of(LAST_BOOKING, NEXT_BOOKING));
+
+        final CompletableFuture<ItemDto> ownerView = CompletableFuture.supplyAsync(
+                () -> itemService.getItemById(new UserPrincipal(owner.getId()), item.getId()));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        final AtomicReference<ItemDto> otherView = new AtomicReference<>();
+        final Thread other = new Thread(() -> otherView.set(itemService.getItemById(new UserPrincipal(requestor.getId()), item.getId())));
+        other.start();
+        while (other.getState() != Thread.State.WAITING && other.isAlive()) {
+            Thread.onSpinWait();
+        }
+        loaded.countDown();
+
+        final ItemDto ownerDto = ownerView.get(5, TimeUnit.SECONDS);
+        other.join(5000);
+        final ItemDto otherDto = otherView.get();
+
+        assertNotSame(ownerDto, otherDto);
+        assertEquals(LAST_BOOKING.getId(), ownerDto.getLastBooking().getId());
+        assertEquals(NEXT_BOOKING.getId(), ownerDto.getNextBooking().getId());
+        assertNull(otherDto.getLastBooking());
+        assertNull(otherDto.getNextBooking());
+        assertEquals(1, otherDto.getComments().size());
+        assertNotSame(ownerDto.getComments().iterator().next(), otherDto.getComments().iterator().next());
+        Mockito.verify(itemRepository, Mockito.times(1)).findById(item.getId());
+        Mockito.verify(commentRepository, Mockito.times(1)).findAllByItemId(item.getId());
     }
 
     @ParameterizedTest
     @ValueSource(longs = {11, 12, 32, 999})
     void getItemByNotValidId(Long id) {
-        Mockito.when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
 
         ItemNotFoundException exception = assertThrows(ItemNotFoundException.class, () -> {
-            itemService.getItemById(owner.getId(), id);
+            itemService.getItemById(new UserPrincipal(owner.getId()), id);
         });
 
         String expectedMessage = String.format("Вещь с id=%d не найдена!", id);
@@ -159,16 +208,15 @@ class ItemServiceTest {
 
         assertEquals(expectedMessage, actualMessage);
 
-        Mockito.verify(userRepository, Mockito.times(1)).findById(owner.getId());
     }
 
     @ParameterizedTest
     @ValueSource(strings = {" ", "Torque screwdriver", "TORQUE", "screwdriver"})
     void search(String text) {
         Pageable pageable = PageRequest.of(0, 10);
-        Mockito.when(itemRepository.search(text, pageable)).thenReturn(text.isBlank() ? new PageImpl<>(Collections.emptyList()) : new PageImpl<>(List.of(item)));
+        Mockito.when(itemSearchEngine.search(text, pageable)).thenReturn(text.isBlank() ? new SliceImpl<>(Collections.emptyList()) : new SliceImpl<>(List.of(ItemMapper.mapToItemDto(item))));
 
-        List<Item> items = itemService.searchItem(text, pageable);
+        List<ItemDto> items = itemService.searchItem(text, pageable).getContent();
 
         if (text.isBlank()) {
             assertEquals(0, items.size());
@@ -176,43 +224,50 @@ class ItemServiceTest {
             assertEquals(1, items.size());
         }
 
-        Mockito.verify(itemRepository, Mockito.times(1)).search(text, pageable);
+        Mockito.verify(itemSearchEngine, Mockito.times(1)).search(text, pageable);
     }
 
     @Test
     void getAllItems() {
         Pageable pageable = PageRequest.of(0, 10);
-        Mockito.when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
         Mockito.when(itemRepository.findAllByOwnerId(owner.getId(), pageable)).thenReturn(List.of(item));
 
-        List<ItemDto> items = itemService.getItems(owner.getId(), 0, 10);
+        List<ItemDto> items = itemService.getItems(new UserPrincipal(owner.getId()), 0, 10);
 
         assertEquals(1, items.size());
 
-        Mockito.verify(userRepository, Mockito.times(1)).findById(owner.getId());
         Mockito.verify(itemRepository, Mockito.times(1)).findAllByOwnerId(owner.getId(), pageable);
+        Mockito.verify(commentRepository, Mockito.times(1)).findAllByItemIdIn(Set.of(item.getId()));
+        Mockito.verify(bookingRepository, Mockito.times(1))
+                .findLastAndNextApprovedBookings(Mockito.eq(Set.of(item.getId())), Mockito.any());
+        Mockito.verify(commentRepository, Mockito.never()).findAllByItemId(Mockito.anyLong());
+        Mockito.verify(bookingRepository, Mockito.never()).findAllByItemId(Mockito.anyLong());
     }
 
     @Test
-    void getAllItemsByNotValidUserId() {
-        UserNotFoundException exception = assertThrows(UserNotFoundException.class, () -> {
-            itemService.getItems(owner.getId(), 0, 10);
-        });
+    void getAllItemsWithBookingsAndComments() {
+        Pageable pageable = PageRequest.of(0, 10);
+        Mockito.when(itemRepository.findAllByOwnerId(owner.getId(), pageable)).thenReturn(List.of(item));
+        Mockito.when(commentRepository.findAllByItemIdIn(Set.of(item.getId()))).thenReturn(List.of(comment));
+        Mockito.when(bookingRepository.findLastAndNextApprovedBookings(Mockito.eq(Set.of(item.getId())), Mockito.any()))
+                .thenReturn(List.of(LAST_BOOKING, NEXT_BOOKING));
 
-        String expectedMessage = String.format("Пользователь с id=%d не найден!", owner.getId());
-        String actualMessage = exception.getMessage();
+        List<ItemDto> items = itemService.getItems(new UserPrincipal(owner.getId()), 0, 10);
 
-        assertEquals(expectedMessage, actualMessage);
+        assertEquals(1, items.size());
+        assertEquals(1, items.get(0).getComments().size());
+        assertEquals(LAST_BOOKING.getId(), items.get(0).getLastBooking().getId());
+        assertEquals(NEXT_BOOKING.getId(), items.get(0).getNextBooking().getId());
     }
 
+
     @Test
     void addItem() {
-        Mockito.when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
         Mockito.when(requestRepository.findById(request.getId())).thenReturn(Optional.of(request));
         Mockito.when(itemRepository.save(Mockito.any())).thenReturn(item);
 
         ItemDto dto = ItemMapper.mapToItemDto(item, request);
-        ItemDto savedDto = itemService.addNewItem(owner.getId(), dto);
+        ItemDto savedDto = itemService.addNewItem(new UserPrincipal(owner.getId()), dto);
 
         assertSoftly(softAssertions -> {
             softAssertions.assertThat(dto)
@@ -220,31 +275,18 @@ class ItemServiceTest {
                     .isEqualTo(savedDto);
         });
 
-        Mockito.verify(userRepository, Mockito.times(1)).findById(owner.getId());
         Mockito.verify(requestRepository, Mockito.times(1)).findById(request.getId());
         Mockito.verify(itemRepository, Mockito.times(1)).save(Mockito.any());
+        Mockito.verify(itemSearchEngine, Mockito.times(1)).index(Mockito.any());
     }
 
-    @Test
-    void addItemByNotValidUserId() {
-        ItemDto dto = ItemMapper.mapToItemDto(item, request);
-        EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () -> {
-            itemService.addNewItem(owner.getId(), dto);
-        });
-
-        String expectedMessage = String.format("Пользователь с id=%d не найден!", owner.getId());
-        String actualMessage = exception.getMessage();
-
-        assertEquals(expectedMessage, actualMessage);
-    }
 
     @Test
     void addItemByNotValidRequestId() {
-        Mockito.when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
 
         ItemDto dto = ItemMapper.mapToItemDto(item, request);
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () -> {
-            itemService.addNewItem(owner.getId(), dto);
+            itemService.addNewItem(new UserPrincipal(owner.getId()), dto);
         });
 
         String expectedMessage = String.format("Item request with id=%d not found!", request.getId());
@@ -252,7 +294,6 @@ class ItemServiceTest {
 
         assertEquals(expectedMessage, actualMessage);
 
-        Mockito.verify(userRepository, Mockito.times(1)).findById(owner.getId());
     }
 
     @Test
@@ -266,41 +307,27 @@ class ItemServiceTest {
                 .request(request)
                 .build();
 
-        Mockito.when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
         Mockito.when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
 
         ItemDto dto = ItemMapper.mapToItemDto(newItem, request);
-        ItemDto savedItem = itemService.updateItem(dto, owner.getId(), newItem.getId());
+        ItemDto savedItem = itemService.updateItem(dto, new UserPrincipal(owner.getId()), newItem.getId());
 
         assertEquals(newItem.getId(), savedItem.getId());
         assertEquals(newItem.getName(), savedItem.getName());
         assertEquals(newItem.getDescription(), savedItem.getDescription());
         assertEquals(newItem.getAvailable(), savedItem.getAvailable());
 
-        Mockito.verify(userRepository, Mockito.times(1)).findById(owner.getId());
         Mockito.verify(itemRepository, Mockito.times(1)).findById(item.getId());
+        Mockito.verify(itemSearchEngine, Mockito.times(1)).index(item);
     }
 
-    @Test
-    void updateItemByNotFoundUserId() {
-        UserNotFoundException exception = assertThrows(UserNotFoundException.class, () -> {
-            ItemDto dto = ItemMapper.mapToItemDto(item, request);
-            itemService.updateItem(dto, owner.getId(), dto.getId());
-        });
-
-        String expectedMessage = String.format("Пользователь с id=%d не найден!", owner.getId());
-        String actualMessage = exception.getMessage();
-
-        assertEquals(expectedMessage, actualMessage);
-    }
 
     @Test
     void updateItemByNotFoundItemId() {
-        Mockito.when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
 
         ItemNotFoundException exception = assertThrows(ItemNotFoundException.class, () -> {
             ItemDto dto = ItemMapper.mapToItemDto(item, request);
-            itemService.updateItem(dto, owner.getId(), dto.getId());
+            itemService.updateItem(dto, new UserPrincipal(owner.getId()), dto.getId());
         });
 
         String expectedMessage = String.format("Вещь с id=%d не найдена!", item.getId());
@@ -308,7 +335,6 @@ class ItemServiceTest {
 
         assertEquals(expectedMessage, actualMessage);
 
-        Mockito.verify(userRepository, Mockito.times(1)).findById(owner.getId());
     }
 
     @Test
@@ -322,12 +348,11 @@ class ItemServiceTest {
                 .request(request)
                 .build();
 
-        Mockito.when(userRepository.findById(requestor.getId())).thenReturn(Optional.of(requestor));
         Mockito.when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
 
         SecurityException exception = assertThrows(SecurityException.class, () -> {
             ItemDto dto = ItemMapper.mapToItemDto(newItem, request);
-            itemService.updateItem(dto, requestor.getId(), newItem.getId());
+            itemService.updateItem(dto, new UserPrincipal(requestor.getId()), newItem.getId());
         });
 
         String expectedMessage = String.format("У пользователя c id=%d отсутствуют права на изменение вещи!", requestor.getId());
@@ -335,41 +360,26 @@ class ItemServiceTest {
 
         assertEquals(expectedMessage, actualMessage);
 
-        Mockito.verify(userRepository, Mockito.times(1)).findById(requestor.getId());
         Mockito.verify(itemRepository, Mockito.times(1)).findById(item.getId());
     }
 
     @Test
     void deleteItem() {
-        Mockito.when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
         Mockito.when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
 
-        itemService.deleteItem(owner.getId(), item.getId());
+        itemService.deleteItem(new UserPrincipal(owner.getId()), item.getId());
 
-        Mockito.verify(userRepository, Mockito.times(1)).findById(owner.getId());
         Mockito.verify(itemRepository, Mockito.times(1)).findById(item.getId());
+        Mockito.verify(itemSearchEngine, Mockito.times(1)).remove(item.getId());
     }
 
-    @ParameterizedTest
-    @ValueSource(longs = {11, 12, 32, 999})
-    void deleteItemByNotFoundUserId(Long userId) {
-        UserNotFoundException exception = assertThrows(UserNotFoundException.class, () -> {
-            itemService.deleteItem(userId, item.getId());
-        });
-
-        String expectedMessage = String.format("Пользователь с id=%d не найден!", userId);
-        String actualMessage = exception.getMessage();
-
-        assertEquals(expectedMessage, actualMessage);
-    }
 
     @ParameterizedTest
     @ValueSource(longs = {11, 12, 32, 999})
     void deleteItemByNotFoundId(Long id) {
-        Mockito.when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
 
         ItemNotFoundException exception = assertThrows(ItemNotFoundException.class, () -> {
-            itemService.deleteItem(owner.getId(), id);
+            itemService.deleteItem(new UserPrincipal(owner.getId()), id);
         });
 
         String expectedMessage = String.format("Вещь с id=%d не найдена!", id);
@@ -377,18 +387,17 @@ class ItemServiceTest {
 
         assertEquals(expectedMessage, actualMessage);
 
-        Mockito.verify(userRepository, Mockito.times(1)).findById(owner.getId());
     }
 
     @Test
     void addComment() {
-        Mockito.when(userRepository.findById(BOOKER.getId())).thenReturn(Optional.of(BOOKER));
+        Mockito.when(userRepository.getReferenceById(BOOKER.getId())).thenReturn(BOOKER);
         Mockito.when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
         Mockito.when(bookingRepository.findAllByItemId(item.getId())).thenReturn(List.of(LAST_BOOKING));
         Mockito.when(commentRepository.save(Mockito.any())).thenReturn(comment);
 
         CommentDto dto = CommentMapper.mapToCommentDto(comment);
-        CommentWithInfoDto savedDto = itemService.addComment(dto, BOOKER.getId(), item.getId());
+        CommentWithInfoDto savedDto = itemService.addComment(dto, new UserPrincipal(BOOKER.getId()), item.getId());
 
         assertSoftly(softAssertions -> {
             softAssertions.assertThat(dto)
@@ -396,32 +405,18 @@ class ItemServiceTest {
                     .isEqualTo(savedDto);
         });
 
-        Mockito.verify(userRepository, Mockito.times(1)).findById(BOOKER.getId());
+        Mockito.verify(userRepository, Mockito.times(1)).getReferenceById(BOOKER.getId());
         Mockito.verify(itemRepository, Mockito.times(1)).findById(item.getId());
         Mockito.verify(bookingRepository, Mockito.times(1)).findAllByItemId(item.getId());
         Mockito.verify(commentRepository, Mockito.times(1)).save(Mockito.any());
     }
 
-    @Test
-    void addCommentByNotFoundUserId() {
-        EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () -> {
-            CommentDto dto = CommentMapper.mapToCommentDto(comment);
-            itemService.addComment(dto, owner.getId(), item.getId());
-        });
-
-        String expectedMessage = String.format("Пользователь с id=%d не найден!", owner.getId());
-        String actualMessage = exception.getMessage();
-
-        assertEquals(expectedMessage, actualMessage);
-    }
 
     @Test
     void addCommentByNotFoundItemId() {
-        Mockito.when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
-
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () -> {
             CommentDto dto = CommentMapper.mapToCommentDto(comment);
-            itemService.addComment(dto, owner.getId(), item.getId());
+            itemService.addComment(dto, new UserPrincipal(owner.getId()), item.getId());
         });
 
         String expectedMessage = String.format("Вещь с id=%d не найдена!", item.getId());
@@ -429,7 +424,7 @@ class ItemServiceTest {
 
         assertEquals(expectedMessage, actualMessage);
 
-        Mockito.verify(userRepository, Mockito.times(1)).findById(owner.getId());
+        Mockito.verify(userRepository, Mockito.never()).getReferenceById(Mockito.anyLong());
     }
 
     private static Stream<Arguments> getBookings() {
@@ -0,0 +1,139 @@
+package ru.practicum.shareit.item;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import ru.practicum.shareit.item.search.TrigramIndex;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+public class TrigramIndexTest {
+    /**
+     * Замерено около 600 байт на вещь; запас на погрешность замера через System.gc().
+     */
+    private static final long MAX_BYTES_PER_ITEM = 800;
+    private TrigramIndex<String> index;
+
+    @BeforeEach
+    void init() {
+        index = new TrigramIndex<>();
+        index.put(1L, "Дрель", "Дрель", "Простая дрель");
+        index.put(2L, "Аккумуляторная дрель", "Аккумуляторная дрель", "Аккумуляторная дрель + аккумулятор");
+        index.put(3L, "Отвертка", "Отвертка", "Аккумуляторная отвертка");
+        index.put(4L, "Saw", "Saw", "Circular saw");
+    }
+
+    @ParameterizedTest
+    @MethodSource("getQueries")
+    void search(String text, long[] expected) {
+        assertArrayEquals(expected, index.search(text));
+    }
+
+    @Test
+    void searchDoesNotMatchAcrossFields() {
+        assertArrayEquals(new long[0], index.search("сawcirc"));
+        assertArrayEquals(new long[0], index.search("ьпрост"));
+    }
+
+    @Test
+    void update() {
+        index.put(1L, "Перфоратор", "Перфоратор", "Мощный перфоратор");
+
+        assertArrayEquals(new long[]{2}, index.search("дрель"));
+        assertArrayEquals(new long[]{1}, index.search("перфо"));
+        assertEquals("Перфоратор", index.get(1L));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void remove() {
+        index.remove(2L);
+        index.remove(42L);
+
+        assertArrayEquals(new long[]{1}, index.search("дрель"));
+        assertArrayEquals(new long[]{3}, index.search("аккумулятор"));
+        assertNull(index.get(2L));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void putAndRemoveManyDocuments() {
+        final Map<Long, String> expected = new HashMap<>();
+        final Random random = new Random(42);
+        index.clear();
+        for (int i = 0; i < 20_000; i++) {
+            final long id = random.nextInt(5_000) * 31L;
+            if (random.nextInt(3) == 0) {
+                index.remove(id);
+                expected.remove(id);
+            } else {
+                final String name = "item-" + id + "-" + i;
+                index.put(id, name, name);
+                expected.put(id, name);
+            }
+        }
+
+        assertEquals(expected.size(), index.size());
+        assertEquals(expected.size(), index.search("it").length);
+        for (long id = 0; id < 5_000 * 31L; id += 31) {
+            assertEquals(expected.get(id), index.get(id));
+        }
+        expected.forEach((id, name) -> assertArrayEquals(new long[]{id}, index.search(name)));
+    }
+
+    /**
+     * Расход памяти индекса на миллион вещей. Запуск: mvn test -Dtest=TrigramIndexTest -Dshareit.benchmark=true
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "shareit.benchmark", matches = "true")
+    void memoryPerMillionItems() {
+        final int count = 1_000_000;
+        final Runtime runtime = Runtime.getRuntime();
+        final TrigramIndex<String> benchmark = new TrigramIndex<>();
+        final long before = usedMemory(runtime);
+
+        for (int i = 0; i < count; i++) {
+            final String name = "Вещь " + i;
+            benchmark.put(i, null, name, "Описание вещи номер " + i + " для аренды");
+        }
+        final long after = usedMemory(runtime);
+        final long bytesPerItem = (after - before) / count;
+
+        log.info("TrigramIndex: {} items, {} MB, {} bytes per item", benchmark.size(),
+                (after - before) / 1024 / 1024, bytesPerItem);
+        assertTrue(bytesPerItem <= MAX_BYTES_PER_ITEM, bytesPerItem + " bytes per item");
+        assertEquals(count, benchmark.size());
+        assertArrayEquals(new long[]{123456}, benchmark.search("номер 123456 "));
+    }
+
+    private static long usedMemory(Runtime runtime) {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static Stream<Arguments> getQueries() {
+        return Stream.of(
+                Arguments.of("дРелЬ", new long[]{1, 2}),
+                Arguments.of("аккУМУляторная", new long[]{2, 3}),
+                Arguments.of("оТверТ", new long[]{3}),
+                Arguments.of("circular SAW", new long[]{4}),
+                Arguments.of("aw", new long[]{4}),
+                Arguments.of("молоток", new long[0])
+        );
+    }
+}
@@ -0,0 +1,144 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.user.UserPrincipal;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.TrigramItemSearchEngine;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Индекс обновляется только после фиксации транзакции, поэтому тест работает без общей транзакции,
+ * а созданные данные удаляет сам.
+ */
+@SpringBootTest(properties = "shareit.search.engine=trigram")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class TrigramSearchDbTest {
+    private final Pageable pageable = PageRequest.of(0, 10);
+    private User owner;
+    private final EntityManager em;
+    private final TransactionTemplate transactionTemplate;
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final ItemService itemService;
+    private final TrigramItemSearchEngine searchEngine;
+
+    @BeforeEach
+    void init() {
+        owner = userRepository.save(new User(null, "John", "john@gmail.com"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            em.createQuery("DELETE FROM Booking b WHERE b.booker.id = :id")
+                    .setParameter("id", owner.getId())
+                    .executeUpdate();
+            em.createQuery("DELETE FROM Item i WHERE i.owner.id = :id")
+                    .setParameter("id", owner.getId())
+                    .executeUpdate();
+            em.createQuery("DELETE FROM User u WHERE u.id = :id")
+                    .setParameter("id", owner.getId())
+                    .executeUpdate();
+        });
+        searchEngine.rebuild();
+    }
+
+    @Test
+    void searchAfterAddUpdateAndDelete() {
+        ItemDto dto = itemService.addNewItem(new UserPrincipal(owner.getId()), ItemDto.builder()
+                .name("Дрель")
+                .description("Аккумуляторная дрель")
+                .available(true)
+                .build());
+
+        assertThat(itemService.searchItem("дРелЬ", pageable)).extracting(ItemDto::getId).containsExactly(dto.getId());
+
+        dto.setName("Отвертка");
+        dto.setDescription("Аккумуляторная отвертка");
+        itemService.updateItem(dto, new UserPrincipal(owner.getId()), dto.getId());
+
+        assertThat(itemService.searchItem("дрель", pageable)).isEmpty();
+        assertThat(itemService.searchItem("оТверТ", pageable)).extracting(ItemDto::getName).containsExactly("Отвертка");
+
+        dto.setAvailable(false);
+        itemService.updateItem(dto, new UserPrincipal(owner.getId()), dto.getId());
+
+        assertThat(itemService.searchItem("отверт", pageable)).isEmpty();
+
+        dto.setAvailable(true);
+        itemService.updateItem(dto, new UserPrincipal(owner.getId()), dto.getId());
+        itemService.deleteItem(new UserPrincipal(owner.getId()), dto.getId());
+
+        assertThat(itemService.searchItem("отверт", pageable)).isEmpty();
+    }
+
+    @Test
+    void rolledBackAddIsNotIndexed() {
+        transactionTemplate.executeWithoutResult(status -> {
+            itemService.addNewItem(new UserPrincipal(owner.getId()), ItemDto.builder()
+                    .name("Стремянка")
+                    .description("Алюминиевая стремянка")
+                    .available(true)
+                    .build());
+            status.setRollbackOnly();
+        });
+
+        assertThat(itemService.searchItem("стремян", pageable)).isEmpty();
+    }
+
+    @Test
+    void failedDeleteKeepsItemIndexed() {
+        final ItemDto dto = itemService.addNewItem(new UserPrincipal(owner.getId()), ItemDto.builder()
+                .name("Перфоратор")
+                .description("Перфоратор с набором буров")
+                .available(true)
+                .build());
+        final Item item = itemRepository.findById(dto.getId()).orElseThrow();
+        bookingRepository.save(new Booking(null, LocalDateTime.now().minusDays(2), LocalDateTime.now().minusDays(1),
+                BookingStatus.APPROVED, item, owner));
+
+        assertThrows(DataIntegrityViolationException.class, () -> itemService.deleteItem(new UserPrincipal(owner.getId()), dto.getId()));
+        assertThat(itemService.searchItem("перфор", pageable)).extracting(ItemDto::getId).containsExactly(dto.getId());
+    }
+
+    @Test
+    void rebuild() {
+        Item item = itemRepository.save(Item.builder()
+                .name("Saw")
+                .description("Circular saw")
+                .available(true)
+                .owner(owner)
+                .build());
+
+        searchEngine.rebuild();
+        List<ItemDto> items = itemService.searchItem("SAW", pageable).getContent();
+
+        assertThat(items).extracting(ItemDto::getId).containsExactly(item.getId());
+        assertThat(items.get(0).getDescription()).isEqualTo(item.getDescription());
+        assertThat(items.get(0).getRequestId()).isNull();
+    }
+}
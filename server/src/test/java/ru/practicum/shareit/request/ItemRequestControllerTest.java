@@ -6,6 +6,7 @@ import org.mockito.Mockito;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.user.UserPrincipal;
 import ru.practicum.shareit.request.controller.ItemRequestController;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.service.RequestService;
@@ -14,6 +15,7 @@ import ru.practicum.shareit.utils.LocalDateTimeAdapter;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -38,9 +40,12 @@ class ItemRequestControllerTest {
     private MockMvc mockMvc;
     @MockBean
     private RequestService requestService;
+    @MockBean
+    private UserExistenceCache userExistenceCache;
 
     @BeforeEach
     void init() {
+        Mockito.when(userExistenceCache.exists(Mockito.anyLong())).thenReturn(true);
         owner = new UserDto(1L, "John", "john@gmail.com");
         requestor = new UserDto(2L, "Fred", "fred@gmail.com");
         request = new ItemRequest(1L, "Want to rent screwdriver for 3 days", LocalDateTime.now().plusDays(3), UserMapper.mapToUser(requestor));
@@ -63,7 +68,7 @@ class ItemRequestControllerTest {
     @Test
     @DisplayName("Send GET request /requests/{id}")
     void getRequestById() throws Exception {
-        Mockito.when(requestService.getRequestById(owner.getId(), request.getId())).thenReturn(dto);
+        Mockito.when(requestService.getRequestById(new UserPrincipal(owner.getId()), request.getId())).thenReturn(dto);
 
         this.mockMvc.perform(MockMvcRequestBuilders
                         .get("/requests/{id}", request.getId())
@@ -72,13 +77,13 @@ class ItemRequestControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.id").isNumber());
 
-        Mockito.verify(requestService, Mockito.times(1)).getRequestById(owner.getId(), request.getId());
+        Mockito.verify(requestService, Mockito.times(1)).getRequestById(new UserPrincipal(owner.getId()), request.getId());
     }
 
     @Test
     @DisplayName("Send GET request /requests/{id}")
     void getRequestByNotValidId() throws Exception {
-        Mockito.when(requestService.getRequestById(owner.getId(), request.getId())).thenThrow(UserNotFoundException.class);
+        Mockito.when(requestService.getRequestById(new UserPrincipal(owner.getId()), request.getId())).thenThrow(UserNotFoundException.class);
 
         this.mockMvc.perform(MockMvcRequestBuilders
                         .get("/requests/{id}", request.getId())
@@ -86,13 +91,13 @@ class ItemRequestControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
 
-        Mockito.verify(requestService, Mockito.times(1)).getRequestById(owner.getId(), request.getId());
+        Mockito.verify(requestService, Mockito.times(1)).getRequestById(new UserPrincipal(owner.getId()), request.getId());
     }
 
     @Test
     @DisplayName("Send GET request /requests")
     void getRequestsMadeByOwner() throws Exception {
-        Mockito.when(requestService.getRequestsMadeByOwner(requestor.getId())).thenReturn(List.of(dto));
+        Mockito.when(requestService.getRequestsMadeByOwner(new UserPrincipal(requestor.getId()))).thenReturn(List.of(dto));
 
         this.mockMvc.perform(MockMvcRequestBuilders
                         .get("/requests", request.getId())
@@ -101,13 +106,13 @@ class ItemRequestControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").isNumber());
 
-        Mockito.verify(requestService, Mockito.times(1)).getRequestsMadeByOwner(requestor.getId());
+        Mockito.verify(requestService, Mockito.times(1)).getRequestsMadeByOwner(new UserPrincipal(requestor.getId()));
     }
 
     @Test
     @DisplayName("Send GET request /requests/all?from={from}&size={size}")
     void getAllRequestsMadeByOthers() throws Exception {
-        Mockito.when(requestService.getRequestsMadeByOthers(owner.getId(), 0, 10)).thenReturn(List.of(dto));
+        Mockito.when(requestService.getRequestsMadeByOthers(new UserPrincipal(owner.getId()), 0, 10)).thenReturn(List.of(dto));
 
         this.mockMvc.perform(MockMvcRequestBuilders
                         .get("/requests/all?from={from}&size={size}", 0, 10)
@@ -116,13 +121,31 @@ class ItemRequestControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").isNumber());
 
-        Mockito.verify(requestService, Mockito.times(1)).getRequestsMadeByOthers(owner.getId(), 0, 10);
+        Mockito.verify(requestService, Mockito.times(1)).getRequestsMadeByOthers(new UserPrincipal(owner.getId()), 0, 10);
+    }
+
+    @Test
+    @DisplayName("Send GET request /requests/all?size={size}&after={after}")
+    void getAllRequestsMadeByOthersAfterCursor() throws Exception {
+        String after = new KeysetCursor(LocalDateTime.now(), 5L).encode();
+        Mockito.when(requestService.getRequestsMadeByOthersAfter(new UserPrincipal(owner.getId()), after, 1)).thenReturn(List.of(dto));
+
+        this.mockMvc.perform(MockMvcRequestBuilders
+                        .get("/requests/all?size={size}&after={after}", 1, after)
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(KeysetCursor.NEXT_CURSOR_HEADER,
+                        new KeysetCursor(dto.getCreated(), dto.getId()).encode()))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").isNumber());
+
+        Mockito.verify(requestService, Mockito.times(1)).getRequestsMadeByOthersAfter(new UserPrincipal(owner.getId()), after, 1);
     }
 
     @Test
     @DisplayName("Send POST request /requests")
     void addNewRequest() throws Exception {
-        Mockito.when(requestService.addNewRequest(Mockito.anyLong(), Mockito.any())).thenReturn(dto);
+        Mockito.when(requestService.addNewRequest(Mockito.any(UserPrincipal.class), Mockito.any())).thenReturn(dto);
 
         this.mockMvc.perform(MockMvcRequestBuilders
                         .post("/requests")
@@ -131,7 +154,7 @@ class ItemRequestControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
 
-        Mockito.verify(requestService, Mockito.times(1)).addNewRequest(Mockito.anyLong(), Mockito.any());
+        Mockito.verify(requestService, Mockito.times(1)).addNewRequest(Mockito.any(UserPrincipal.class), Mockito.any());
     }
 
     @Test
@@ -143,7 +166,7 @@ class ItemRequestControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
 
-        Mockito.verify(requestService, Mockito.times(1)).deleteById(owner.getId(), dto.getId());
+        Mockito.verify(requestService, Mockito.times(1)).deleteById(new UserPrincipal(owner.getId()), dto.getId());
     }
 }
 
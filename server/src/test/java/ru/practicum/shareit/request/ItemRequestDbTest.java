@@ -13,6 +13,9 @@ import javax.persistence.TypedQuery;
 import javax.persistence.EntityManager;
 
 import ru.practicum.shareit.exception.ItemNotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.UserPrincipal;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.service.RequestService;
 import ru.practicum.shareit.user.mapper.UserMapper;
@@ -22,6 +25,7 @@ import ru.practicum.shareit.user.service.UserService;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 
@@ -34,6 +38,7 @@ public class ItemRequestDbTest {
     private final EntityManager em;
     private final UserService userService;
     private final RequestService requestService;
+    private final ItemService itemService;
 
     @BeforeEach
     void init() {
@@ -55,7 +60,7 @@ public class ItemRequestDbTest {
                 .setParameter("id", dto.getId())
                 .getSingleResult();
 
-        dto = requestService.getRequestById(requestor.getId(), id);
+        dto = requestService.getRequestById(new UserPrincipal(requestor.getId()), id);
 
         assertThat(dto.getId()).isNotNull();
         assertThat(dto.getDescription()).isEqualTo(request.getDescription());
@@ -72,7 +77,7 @@ public class ItemRequestDbTest {
                 .setParameter("id", requestor.getId())
                 .getResultList();
 
-        List<ItemRequestDto> requests = requestService.getRequestsMadeByOwner(requestor.getId());
+        List<ItemRequestDto> requests = requestService.getRequestsMadeByOwner(new UserPrincipal(requestor.getId()));
 
         assertThat(result.size()).isEqualTo(requests.size());
     }
@@ -86,7 +91,7 @@ public class ItemRequestDbTest {
                 .setParameter("id", requestor.getId())
                 .getResultList();
 
-        List<ItemRequestDto> requests = requestService.getRequestsMadeByOthers(requestor.getId(), 0, 10);
+        List<ItemRequestDto> requests = requestService.getRequestsMadeByOthers(new UserPrincipal(requestor.getId()), 0, 10);
 
         assertThat(result.size()).isEqualTo(requests.size());
     }
@@ -113,9 +118,9 @@ public class ItemRequestDbTest {
                 .setParameter("id", dto.getId())
                 .getSingleResult();
 
-        requestService.deleteById(requestor.getId(), id);
+        requestService.deleteById(new UserPrincipal(requestor.getId()), id);
         ItemNotFoundException exception = assertThrows(ItemNotFoundException.class, () -> {
-            requestService.getRequestById(requestor.getId(), id);
+            requestService.getRequestById(new UserPrincipal(requestor.getId()), id);
         });
 
         String expectedMessage = String.format("Item request with id=%d not found!", id);
@@ -124,13 +129,41 @@ public class ItemRequestDbTest {
         assertEquals(expectedMessage, actualMessage);
     }
 
+    @Test
+    void getRequestETagAfterAnsweringItemIsReplaced() {
+        final ItemRequestDto dto = makeItemRequest(request);
+        final UserPrincipal owner = new UserPrincipal(userService.saveUser(new UserDto(null, "John", "john@gmail.com")).getId());
+
+        final ItemDto saw = addAnswer(owner, dto.getId(), "Saw");
+        itemService.updateItem(ItemDto.builder().description("Circular saw Bosch").build(), owner, saw.getId());
+        em.flush();
+        em.clear();
+        final String before = requestService.getRequestETag(dto.getId());
+
+        itemService.deleteItem(owner, saw.getId());
+        final ItemDto fan = addAnswer(owner, dto.getId(), "Fan");
+        itemService.updateItem(ItemDto.builder().description("Fan Dyson").build(), owner, fan.getId());
+        em.flush();
+
+        assertNotEquals(before, requestService.getRequestETag(dto.getId()));
+    }
+
+    private ItemDto addAnswer(UserPrincipal owner, Long requestId, String name) {
+        return itemService.addNewItem(owner, ItemDto.builder()
+                .name(name)
+                .description(name)
+                .available(true)
+                .requestId(requestId)
+                .build());
+    }
+
     private ItemRequestDto makeItemRequest(ItemRequest request) {
         UserDto userDto = UserMapper.mapToUserDto(requestor);
         userDto = userService.saveUser(userDto);
         requestor.setId(userDto.getId());
 
         ItemRequestDto dto = ItemRequestMapper.mapToItemRequestDto(request);
-        return requestService.addNewRequest(userDto.getId(), dto);
+        return requestService.addNewRequest(new UserPrincipal(userDto.getId()), dto);
     }
 
     private void makeItemRequests() {
@@ -139,8 +172,8 @@ public class ItemRequestDbTest {
         requestor.setId(userDto.getId());
 
         ItemRequestDto dto = ItemRequestMapper.mapToItemRequestDto(request);
-        requestService.addNewRequest(userDto.getId(), dto);
-        requestService.addNewRequest(userDto.getId(), dto);
-        requestService.addNewRequest(userDto.getId(), dto);
+        requestService.addNewRequest(new UserPrincipal(userDto.getId()), dto);
+        requestService.addNewRequest(new UserPrincipal(userDto.getId()), dto);
+        requestService.addNewRequest(new UserPrincipal(userDto.getId()), dto);
     }
 }
@@ -2,17 +2,22 @@ package ru.practicum.shareit.request;
 
 import java.util.List;
 import java.time.LocalDateTime;
+import java.util.stream.Stream;
+import java.time.temporal.ChronoUnit;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.dto.ItemRequestItemRow;
 import ru.practicum.shareit.request.model.ItemRequest;
+import static java.util.stream.Collectors.toList;
 import static org.junit.jupiter.api.Assertions.*;
 
 @DataJpaTest
@@ -81,4 +86,60 @@ public class ItemRequestRepositoryTest {
         assertNotNull(item.getId());
         assertEquals(1, requests.size());
     }
+
+    @Test
+    void findAllByRequestorIdNotAfter() {
+        final LocalDateTime created = request.getCreated().minusSeconds(1).truncatedTo(ChronoUnit.SECONDS);
+        final ItemRequest first = new ItemRequest(null, "Drill", created, requestor);
+        final ItemRequest second = new ItemRequest(null, "Hammer", created, requestor);
+        final ItemRequest older = new ItemRequest(null, "Ladder", created.minusDays(1), requestor);
+        final List<ItemRequest> history = List.of(first, second, older);
+        history.forEach(em::persist);
+
+        List<ItemRequest> requests = requestRepository.findAllByRequestorIdNotAfter(owner.getId(), created,
+                second.getId(), PageRequest.of(0, 10));
+
+        assertEquals(List.of(first.getId(), older.getId()), requests.stream().map(ItemRequest::getId).collect(toList()));
+        assertTrue(requestRepository.findAllByRequestorIdNotAfter(requestor.getId(), created.plusDays(1),
+                Long.MAX_VALUE, PageRequest.of(0, 10)).isEmpty());
+
+        history.forEach(em::remove);
+    }
+
+    @Test
+    void streamAllWithItemsByRequestorId() {
+        final ItemRequest unanswered = new ItemRequest(null, "Ladder", request.getCreated().minusDays(1), requestor);
+        em.persist(unanswered);
+
+        List<ItemRequestItemRow> rows;
+        try (Stream<ItemRequestItemRow> stream = requestRepository.streamAllWithItemsByRequestorId(requestor.getId())) {
+            rows = stream.collect(toList());
+        }
+
+        assertEquals(2, rows.size());
+        assertEquals(request.getId(), rows.get(0).getId());
+        assertEquals(item.getId(), rows.get(0).getItemId());
+        assertEquals(item.getName(), rows.get(0).getItemName());
+        assertEquals(unanswered.getId(), rows.get(1).getId());
+        assertNull(rows.get(1).getItemId());
+
+        em.remove(unanswered);
+    }
+
+    @Test
+    void findVersionById() {
+        final ItemRequest unanswered = new ItemRequest(null, "Ladder", request.getCreated().minusDays(1), requestor);
+        em.persist(unanswered);
+        em.flush();
+
+        assertEquals(0L, requestRepository.findVersionById(request.getId()).orElseThrow());
+
+        requestRepository.incrementVersion(request);
+        em.flush();
+        assertEquals(1L, requestRepository.findVersionById(request.getId()).orElseThrow());
+        assertEquals(0L, requestRepository.findVersionById(unanswered.getId()).orElseThrow());
+        assertTrue(requestRepository.findVersionById(Long.MAX_VALUE).isEmpty());
+
+        em.remove(unanswered);
+    }
 }
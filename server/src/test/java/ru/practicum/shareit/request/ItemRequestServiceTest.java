@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.Optional;
 import java.time.LocalDateTime;
+import java.util.stream.Stream;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.junit.jupiter.api.Test;
@@ -13,17 +14,19 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.exception.ItemNotFoundException;
-import ru.practicum.shareit.exception.UserNotFoundException;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.request.service.RequestServiceImpl;
+import ru.practicum.shareit.user.UserPrincipal;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestItemRow;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import static org.assertj.core.api.SoftAssertions.assertSoftly;
@@ -70,42 +73,27 @@ class ItemRequestServiceTest {
 
     @Test
     void getRequestById() {
-        Mockito.when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
         Mockito.when(requestRepository.findById(request.getId())).thenReturn(Optional.of(request));
         Mockito.when(itemRepository.findByRequestId(request.getId())).thenReturn(Set.of(item));
 
-        ItemRequestDto dto = requestService.getRequestById(owner.getId(), request.getId());
+        ItemRequestDto dto = requestService.getRequestById(new UserPrincipal(owner.getId()), request.getId());
 
         assertEquals(request.getId(), dto.getId());
         assertEquals(request.getDescription(), dto.getDescription());
         assertEquals(request.getCreated(), dto.getCreated());
         assertEquals(1, dto.getItems().size());
 
-        Mockito.verify(userRepository, Mockito.times(1)).findById(owner.getId());
         Mockito.verify(requestRepository, Mockito.times(1)).findById(request.getId());
         Mockito.verify(itemRepository, Mockito.times(1)).findByRequestId(request.getId());
     }
 
-    @ParameterizedTest
-    @ValueSource(longs = {11, 12, 32, 999})
-    void getRequestByNotValidUserId(Long userId) {
-        UserNotFoundException exception = assertThrows(UserNotFoundException.class, () -> {
-            requestService.getRequestById(userId, request.getId());
-        });
-
-        String expectedMessage = String.format("User with id=%d not found!", userId);
-        String actualMessage = exception.getMessage();
-
-        assertEquals(expectedMessage, actualMessage);
-    }
 
     @ParameterizedTest
     @ValueSource(longs = {11, 12, 32, 999})
     void getRequestByNotValidId(Long id) {
-        Mockito.when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
 
         ItemNotFoundException exception = assertThrows(ItemNotFoundException.class, () -> {
-            requestService.getRequestById(owner.getId(), id);
+            requestService.getRequestById(new UserPrincipal(owner.getId()), id);
         });
 
         String expectedMessage = String.format("Item request with id=%d not found!", id);
@@ -113,69 +101,74 @@ class ItemRequestServiceTest {
 
         assertEquals(expectedMessage, actualMessage);
 
-        Mockito.verify(userRepository, Mockito.times(1)).findById(owner.getId());
     }
 
     @Test
     void getAllRequestsMadeByOwner() {
-        Mockito.when(userRepository.findById(requestor.getId())).thenReturn(Optional.of(requestor));
-        Mockito.when(requestRepository.findAllByRequestorId(requestor.getId())).thenReturn(List.of(request));
-
-        List<ItemRequestDto> requests = requestService.getRequestsMadeByOwner(requestor.getId());
+        Mockito.when(requestRepository.streamAllWithItemsByRequestorId(requestor.getId())).thenReturn(Stream.of(
+                new ItemRequestItemRow(request.getId(), request.getDescription(), request.getCreated(), 1L, "Saw", "Circular saw", true),
+                new ItemRequestItemRow(request.getId(), request.getDescription(), request.getCreated(), 2L, "Drill", "Drill", false),
+                new ItemRequestItemRow(5L, "Ladder", request.getCreated().minusDays(1), null, null, null, null)));
+
+        List<ItemRequestDto> requests = requestService.getRequestsMadeByOwner(new UserPrincipal(requestor.getId()));
+
+        assertEquals(2, requests.size());
+        assertEquals(request.getId(), requests.get(0).getId());
+        assertEquals(2, requests.get(0).getItems().size());
+        assertTrue(requests.get(0).getItems().stream().allMatch(it -> request.getId().equals(it.getRequestId())));
+        assertEquals(5L, requests.get(1).getId());
+        assertTrue(requests.get(1).getItems().isEmpty());
+
+        Mockito.verify(requestRepository, Mockito.times(1)).streamAllWithItemsByRequestorId(requestor.getId());
+        Mockito.verifyNoInteractions(itemRepository);
+    }
 
-        assertEquals(1, requests.size());
 
-        Mockito.verify(userRepository, Mockito.times(1)).findById(requestor.getId());
-        Mockito.verify(requestRepository, Mockito.times(2)).findAllByRequestorId(requestor.getId());
-    }
+    @Test
+    void getAllRequestsMadeByOthers() {
+        MyPageRequest pageRequest = new MyPageRequest(0, 10, Sort.by(Sort.Direction.DESC, "created", "id"));
+        Mockito.when(requestRepository.findAllByRequestorIdNot(owner.getId(), pageRequest)).thenReturn(List.of(request));
 
-    @ParameterizedTest
-    @ValueSource(longs = {11, 12, 32, 999})
-    void getAllRequestsMadeByOwnerByNotValidUserId(Long userId) {
-        UserNotFoundException exception = assertThrows(UserNotFoundException.class, () -> {
-            requestService.getRequestsMadeByOwner(userId);
-        });
+        List<ItemRequestDto> requests = requestService.getRequestsMadeByOthers(new UserPrincipal(owner.getId()), 0, 10);
 
-        String expectedMessage = String.format("User with id=%d not found!", userId);
-        String actualMessage = exception.getMessage();
+        assertEquals(1, requests.size());
 
-        assertEquals(expectedMessage, actualMessage);
+        Mockito.verify(requestRepository, Mockito.times(1)).findAllByRequestorIdNot(owner.getId(), pageRequest);
+        Mockito.verify(itemRepository, Mockito.times(1)).findItemByRequestIn(List.of(request));
     }
 
     @Test
-    void getAllRequestsMadeByOthers() {
-        MyPageRequest pageRequest = new MyPageRequest(0, 10, Sort.by(Sort.Direction.DESC, "created"));
-        Mockito.when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
-        Mockito.when(requestRepository.findAllByRequestorIdNot(owner.getId(), pageRequest)).thenReturn(List.of(request));
+    void getAllRequestsMadeByOthersAfterCursor() {
+        KeysetCursor after = new KeysetCursor(LocalDateTime.now(), 7L);
+        Mockito.when(requestRepository.findAllByRequestorIdNotAfter(owner.getId(), after.getTimestamp(), after.getId(),
+                PageRequest.of(0, 10))).thenReturn(List.of(request));
 
-        List<ItemRequestDto> requests = requestService.getRequestsMadeByOthers(owner.getId(), 0, 10);
+        List<ItemRequestDto> requests = requestService.getRequestsMadeByOthersAfter(new UserPrincipal(owner.getId()), after.encode(), 10);
 
         assertEquals(1, requests.size());
-
-        Mockito.verify(userRepository, Mockito.times(1)).findById(owner.getId());
-        Mockito.verify(requestRepository, Mockito.times(2)).findAllByRequestorIdNot(owner.getId(), pageRequest);
+        Mockito.verify(itemRepository, Mockito.times(1)).findItemByRequestIn(List.of(request));
+        Mockito.verify(requestRepository, Mockito.never()).findAllByRequestorIdNot(Mockito.anyLong(), Mockito.any());
     }
 
-    @ParameterizedTest
-    @ValueSource(longs = {11, 12, 32, 999})
-    void getAllRequestsMadeByOthersByNotValidUserId(Long userId) {
-        UserNotFoundException exception = assertThrows(UserNotFoundException.class, () -> {
-            requestService.getRequestsMadeByOthers(userId, 0, 10);
-        });
+    @Test
+    void getAllRequestsMadeByOthersAfterCursorEmptyPage() {
+        KeysetCursor after = new KeysetCursor(LocalDateTime.now(), 7L);
+        Mockito.when(requestRepository.findAllByRequestorIdNotAfter(owner.getId(), after.getTimestamp(), after.getId(),
+                PageRequest.of(0, 10))).thenReturn(List.of());
 
-        String expectedMessage = String.format("User with id=%d not found!", userId);
-        String actualMessage = exception.getMessage();
+        List<ItemRequestDto> requests = requestService.getRequestsMadeByOthersAfter(new UserPrincipal(owner.getId()), after.encode(), 10);
 
-        assertEquals(expectedMessage, actualMessage);
+        assertTrue(requests.isEmpty());
+        Mockito.verifyNoInteractions(itemRepository);
     }
 
+
     @Test
     void addNewRequest() {
-        Mockito.when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
         Mockito.when(requestRepository.save(Mockito.any())).thenReturn(request);
 
         ItemRequestDto dto = ItemRequestMapper.mapToItemRequestDto(request);
-        ItemRequestDto savedDto = requestService.addNewRequest(owner.getId(), dto);
+        ItemRequestDto savedDto = requestService.addNewRequest(new UserPrincipal(owner.getId()), dto);
 
         assertSoftly(softAssertions -> {
             softAssertions.assertThat(dto)
@@ -183,55 +176,27 @@ class ItemRequestServiceTest {
                     .isEqualTo(savedDto);
         });
 
-        Mockito.verify(userRepository, Mockito.times(1)).findById(owner.getId());
+        Mockito.verify(userRepository, Mockito.times(1)).getReferenceById(owner.getId());
         Mockito.verify(requestRepository, Mockito.times(1)).save(Mockito.any());
     }
 
-    @ParameterizedTest
-    @ValueSource(longs = {11, 12, 32, 999})
-    void addNewRequestByNotValidUserId(Long userId) {
-        ItemRequestDto dto = ItemRequestMapper.mapToItemRequestDto(request);
-        UserNotFoundException exception = assertThrows(UserNotFoundException.class, () -> {
-            requestService.addNewRequest(userId, dto);
-        });
-
-        String expectedMessage = String.format("Пользователь с id=%d не найден!", userId);
-        String actualMessage = exception.getMessage();
-
-        assertEquals(expectedMessage, actualMessage);
-    }
 
     @Test
     void deleteRequestById() {
-        Mockito.when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
         Mockito.when(requestRepository.findById(request.getId())).thenReturn(Optional.of(request));
 
-        requestService.deleteById(owner.getId(), request.getId());
+        requestService.deleteById(new UserPrincipal(owner.getId()), request.getId());
 
-        Mockito.verify(userRepository, Mockito.times(1)).findById(owner.getId());
         Mockito.verify(requestRepository, Mockito.times(1)).findById(request.getId());
     }
 
-    @ParameterizedTest
-    @ValueSource(longs = {11, 12, 32, 999})
-    void deleteRequestByNotValidUserId(Long userId) {
-        UserNotFoundException exception = assertThrows(UserNotFoundException.class, () -> {
-            requestService.deleteById(userId, request.getId());
-        });
-
-        String expectedMessage = String.format("User with id=%d not found!", userId);
-        String actualMessage = exception.getMessage();
-
-        assertEquals(expectedMessage, actualMessage);
-    }
 
     @ParameterizedTest
     @ValueSource(longs = {11, 12, 32, 999})
     void deleteRequestByNotValidId(Long id) {
-        Mockito.when(userRepository.findById(owner.getId())).thenReturn(Optional.of(owner));
 
         ItemNotFoundException exception = assertThrows(ItemNotFoundException.class, () -> {
-            requestService.deleteById(owner.getId(), id);
+            requestService.deleteById(new UserPrincipal(owner.getId()), id);
         });
 
         String expectedMessage = String.format("Item request with id=%d not found!", id);
@@ -239,6 +204,5 @@ class ItemRequestServiceTest {
 
         assertEquals(expectedMessage, actualMessage);
 
-        Mockito.verify(userRepository, Mockito.times(1)).findById(owner.getId());
     }
 }
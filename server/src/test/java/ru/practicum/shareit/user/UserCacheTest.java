@@ -0,0 +1,80 @@
+package ru.practicum.shareit.user;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import javax.persistence.EntityManagerFactory;
+
+import ru.practicum.shareit.exception.UserNotFoundException;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Кэш второго уровня: каждый вызов сервиса работает в своей сессии, поэтому повторное чтение
+ * пользователя должно обслуживаться из кэша, а изменения - сразу в нём отражаться.
+ */
+@SpringBootTest
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class UserCacheTest {
+    private UserDto user;
+    private CacheRegionStatistics statistics;
+    private final EntityManagerFactory emf;
+    private final UserService userService;
+
+    @BeforeEach
+    void init() {
+        final SessionFactory sessionFactory = emf.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        sessionFactory.getStatistics().clear();
+        statistics = sessionFactory.getStatistics().getDomainDataRegionStatistics(User.class.getName());
+        user = userService.saveUser(new UserDto(null, "Cached", "cached@gmail.com"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        try {
+            userService.deleteUser(user.getId());
+        } catch (UserNotFoundException ignored) {
+            // пользователь уже удалён тестом
+        }
+    }
+
+    @Test
+    void getUserByIdHitsCache() {
+        userService.getUserById(user.getId());
+        final long hits = statistics.getHitCount();
+        final long misses = statistics.getMissCount();
+
+        userService.getUserById(user.getId());
+
+        assertEquals(hits + 1, statistics.getHitCount());
+        assertEquals(misses, statistics.getMissCount());
+    }
+
+    @Test
+    void updateUserRefreshesCache() {
+        userService.getUserById(user.getId());
+
+        userService.updateUser(user.getId(), new UserDto(null, "Renamed", null));
+        UserDto dto = userService.getUserById(user.getId());
+
+        assertEquals("Renamed", dto.getName());
+        assertEquals(user.getEmail(), dto.getEmail());
+    }
+
+    @Test
+    void deleteUserEvictsCache() {
+        userService.getUserById(user.getId());
+
+        userService.deleteUser(user.getId());
+
+        assertThrows(UserNotFoundException.class, () -> userService.getUserById(user.getId()));
+    }
+}
@@ -0,0 +1,95 @@
+package ru.practicum.shareit.user;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceCache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+public class UserExistenceCacheTest {
+    @Mock
+    private UserRepository userRepository;
+    private UserExistenceCache userExistenceCache;
+
+    @BeforeEach
+    void init() {
+        userExistenceCache = new UserExistenceCache(userRepository);
+    }
+
+    @Test
+    void existsQueriesRepositoryOnce() {
+        Mockito.when(userRepository.existsById(1L)).thenReturn(true);
+
+        assertTrue(userExistenceCache.exists(1L));
+        assertTrue(userExistenceCache.exists(1L));
+
+        Mockito.verify(userRepository, Mockito.times(1)).existsById(1L);
+    }
+
+    @Test
+    void missingUserIsNotCached() {
+        Mockito.when(userRepository.existsById(1L)).thenReturn(false, true);
+
+        assertFalse(userExistenceCache.exists(1L));
+        assertTrue(userExistenceCache.exists(1L));
+
+        Mockito.verify(userRepository, Mockito.times(2)).existsById(1L);
+    }
+
+    @Test
+    void addedUserExistsWithoutQuery() {
+        userExistenceCache.add(1L);
+
+        assertTrue(userExistenceCache.exists(1L));
+
+        Mockito.verify(userRepository, Mockito.never()).existsById(Mockito.anyLong());
+    }
+
+    @Test
+    void removedUserIsQueriedAgain() {
+        userExistenceCache.add(1L);
+        userExistenceCache.remove(1L);
+
+        assertFalse(userExistenceCache.exists(1L));
+
+        Mockito.verify(userRepository, Mockito.times(1)).existsById(1L);
+    }
+
+    @Test
+    void removeDuringQueryDoesNotKeepDeletedUser() throws Exception {
+        final CountDownLatch querying = new CountDownLatch(1);
+        final CountDownLatch deleted = new CountDownLatch(1);
+        Mockito.when(userRepository.existsById(1L))
+                .thenAnswer(invocation -> {
+                    querying.countDown();
+                    assertTrue(deleted.await(5, TimeUnit.SECONDS));
+                    return true;
+                })
+                .thenReturn(false);
+
+        final CompletableFuture<Boolean> read = CompletableFuture.supplyAsync(() -> userExistenceCache.exists(1L));
+        assertTrue(querying.await(5, TimeUnit.SECONDS));
+        final Thread remove = new Thread(() -> userExistenceCache.remove(1L));
+        remove.start();
+        while (remove.getState() != Thread.State.BLOCKED && remove.isAlive()) {
+            Thread.onSpinWait();
+        }
+        deleted.countDown();
+
+        assertTrue(read.get(5, TimeUnit.SECONDS));
+        remove.join(5000);
+        assertFalse(userExistenceCache.exists(1L));
+        Mockito.verify(userRepository, Mockito.times(2)).existsById(1L);
+    }
+}
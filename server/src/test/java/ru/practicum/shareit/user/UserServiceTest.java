@@ -15,6 +15,7 @@ import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceCache;
 import ru.practicum.shareit.user.service.UserServiceImpl;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -24,6 +25,8 @@ class UserServiceTest {
     private User user;
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private UserExistenceCache userExistenceCache;
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -86,6 +89,7 @@ class UserServiceTest {
         assertEquals(dto.getEmail(), savedDto.getEmail());
 
         Mockito.verify(userRepository, Mockito.times(1)).save(Mockito.any());
+        Mockito.verify(userExistenceCache, Mockito.times(1)).add(user.getId());
     }
 
     @Test
@@ -121,11 +125,13 @@ class UserServiceTest {
 
     @Test
     void deleteUser() {
-        Mockito.when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        Mockito.when(userExistenceCache.exists(user.getId())).thenReturn(true);
 
         userService.deleteUser(user.getId());
 
-        Mockito.verify(userRepository, Mockito.times(1)).findById(user.getId());
+        Mockito.verify(userExistenceCache, Mockito.times(1)).exists(user.getId());
+        Mockito.verify(userRepository, Mockito.times(1)).deleteById(user.getId());
+        Mockito.verify(userExistenceCache, Mockito.times(1)).remove(user.getId());
     }
 
     @ParameterizedTest